@@ -0,0 +1,49 @@
+package com.example.ordermanagement.benchmark;
+
+import com.example.ordermanagement.OrderManagementApplication;
+import com.example.ordermanagement.entity.Order;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+
+/**
+ * Boots the application inside a benchmark fork, with logging turned down so it does not skew the numbers.
+ */
+final class BenchmarkApplications {
+
+    private BenchmarkApplications() {
+    }
+
+    static ConfigurableApplicationContext start(WebApplicationType webApplicationType, String... profiles) {
+        return start(OrderManagementApplication.class, webApplicationType, profiles);
+    }
+
+    /**
+     * Starts the WebFlux/R2DBC variant; its classes are only on the classpath with -Preactive.
+     */
+    static ConfigurableApplicationContext startReactive() {
+        try {
+            return start(Class.forName("com.example.ordermanagement.ReactiveOrderManagementApplication"), WebApplicationType.REACTIVE);
+        } catch (ClassNotFoundException ex) {
+            throw new IllegalStateException("Run with -Pbenchmark,reactive to benchmark the reactive application", ex);
+        }
+    }
+
+    private static ConfigurableApplicationContext start(Class<?> application, WebApplicationType webApplicationType,
+                                                        String... profiles) {
+        return new SpringApplicationBuilder(application)
+                .web(webApplicationType)
+                .profiles(profiles)
+                .logStartupInfo(false)
+                .run("--server.port=0",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.hibernate.SQL=OFF",
+                        "--logging.level.org.hibernate.type=OFF");
+    }
+
+    static Order newOrder(int i) {
+        return new Order("Customer " + (i % 1000), LocalDate.now(), i + " Benchmark St", 10.0 + (i % 500));
+    }
+}
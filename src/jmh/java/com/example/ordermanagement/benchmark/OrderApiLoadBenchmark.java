@@ -0,0 +1,91 @@
+package com.example.ordermanagement.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the servlet/JPA and the WebFlux/R2DBC applications under 64 concurrent HTTP clients, for the
+ * same requests. The "reactive" stack needs -Pbenchmark,reactive; the "servlet" one runs with either.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(64)
+@Fork(1)
+public class OrderApiLoadBenchmark {
+
+    @Param({"servlet", "reactive"})
+    public String stack;
+
+    @Param({"1000"})
+    public int tableSize;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private String baseUrl;
+    private long[] ids;
+
+    @Setup
+    public void setup() throws IOException, InterruptedException {
+        context = stack.equals("reactive")
+                ? BenchmarkApplications.startReactive()
+                : BenchmarkApplications.start(WebApplicationType.SERVLET);
+        baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/orders";
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        // Seed through the API so both stacks start from the same rows, whatever their persistence
+        ObjectMapper objectMapper = new ObjectMapper();
+        ids = new long[tableSize];
+        for (int i = 0; i < tableSize; i++) {
+            String order = "{ \"customerName\": \"Customer " + (i % 1000) + "\", \"shippingAddress\": \"" + i
+                    + " Benchmark St\", \"total\": " + (10.0 + i % 500) + " }";
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(order))
+                    .build();
+            String created = client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+            ids[i] = objectMapper.readTree(created).get("id").asLong();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int getOrderById() throws IOException, InterruptedException {
+        long id = ids[ThreadLocalRandom.current().nextInt(ids.length)];
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "/" + id)).GET().build());
+    }
+
+    @Benchmark
+    public int getAllOrdersFirstPage() throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl + "?limit=100")).GET().build());
+    }
+
+    @Benchmark
+    public int streamAllOrders() throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(URI.create(baseUrl)).header("Accept", "application/x-ndjson").GET().build());
+    }
+
+    private int send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() >= 400) {
+            throw new IllegalStateException("Unexpected status " + response.statusCode() + " for " + request.uri());
+        }
+        return response.body().length;
+    }
+}
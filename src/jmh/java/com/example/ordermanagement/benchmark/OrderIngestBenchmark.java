@@ -0,0 +1,69 @@
+package com.example.ordermanagement.benchmark;
+
+import com.example.ordermanagement.dto.BulkOrderResponse;
+import com.example.ordermanagement.entity.Order;
+import com.example.ordermanagement.repository.OrderRepository;
+import com.example.ordermanagement.service.OrderBulkService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingestion throughput: one {@code save} per order (the POST /orders path) against
+ * {@link OrderBulkService} with chunked JDBC batch inserts (the POST /orders/bulk path).
+ * Scores are per order.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderIngestBenchmark {
+
+    private static final int ORDERS_PER_INVOCATION = 1000;
+
+    private ConfigurableApplicationContext context;
+    private OrderRepository orderRepository;
+    private OrderBulkService orderBulkService;
+    private int counter;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkApplications.start(WebApplicationType.NONE);
+        orderRepository = context.getBean(OrderRepository.class);
+        orderBulkService = context.getBean(OrderBulkService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS_PER_INVOCATION)
+    public void perRowSave(Blackhole blackhole) {
+        for (Order order : nextOrders()) {
+            blackhole.consume(orderRepository.save(order));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ORDERS_PER_INVOCATION)
+    public BulkOrderResponse bulkIngest() {
+        return orderBulkService.ingest(nextOrders().iterator());
+    }
+
+    private List<Order> nextOrders() {
+        List<Order> orders = new ArrayList<>(ORDERS_PER_INVOCATION);
+        for (int i = 0; i < ORDERS_PER_INVOCATION; i++) {
+            orders.add(BenchmarkApplications.newOrder(counter++));
+        }
+        return orders;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.ordermanagement.benchmark;
+
+import com.example.ordermanagement.dto.OrderReportResponse;
+import com.example.ordermanagement.entity.Order;
+import com.example.ordermanagement.report.OrderColumns;
+import com.example.ordermanagement.report.OrderReportService;
+import com.example.ordermanagement.repository.OrderAggregateRow;
+import com.example.ordermanagement.repository.OrderRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A full-table revenue report (per day and per customer) computed three ways: loading every entity through JPA,
+ * grouping in the database with the JPQL aggregate, and scanning the {@link OrderColumns} snapshot.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderReportBenchmark {
+
+    @Param({"100000"})
+    public int tableSize;
+
+    private ConfigurableApplicationContext context;
+    private OrderRepository orderRepository;
+    private OrderReportService orderReportService;
+    private OrderColumns snapshot;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkApplications.start(WebApplicationType.NONE);
+        orderRepository = context.getBean(OrderRepository.class);
+        orderReportService = context.getBean(OrderReportService.class);
+
+        List<Order> orders = new ArrayList<>(tableSize);
+        for (int i = 0; i < tableSize; i++) {
+            Order order = BenchmarkApplications.newOrder(i);
+            order.setOrderDate(LocalDate.now().minusDays(i % 365));
+            orders.add(order);
+        }
+        orderRepository.saveAll(orders);
+        snapshot = orderReportService.refresh();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Map<LocalDate, Double> jpaEntities() {
+        Map<LocalDate, Double> byDate = new TreeMap<>();
+        Map<String, Double> byCustomer = new HashMap<>();
+        for (Order order : orderRepository.findAll()) {
+            byDate.merge(order.getOrderDate(), order.getTotal(), Double::sum);
+            byCustomer.merge(order.getCustomerName(), order.getTotal(), Double::sum);
+        }
+        return byDate;
+    }
+
+    @Benchmark
+    public List<OrderAggregateRow> jpqlAggregate() {
+        return orderRepository.aggregateByDateAndCustomer(Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    @Benchmark
+    public OrderReportResponse columnarSnapshot() {
+        return snapshot.report(null, null, null, null, 10);
+    }
+
+    @Benchmark
+    public OrderColumns columnarRefresh() {
+        return orderReportService.refresh();
+    }
+}
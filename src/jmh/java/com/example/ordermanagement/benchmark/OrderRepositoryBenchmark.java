@@ -0,0 +1,71 @@
+package com.example.ordermanagement.benchmark;
+
+import com.example.ordermanagement.entity.Order;
+import com.example.ordermanagement.repository.OrderRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link OrderRepository} against the embedded H2 database, with a preloaded table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderRepositoryBenchmark {
+
+    @Param({"1000"})
+    public int tableSize;
+
+    private ConfigurableApplicationContext context;
+    private OrderRepository orderRepository;
+    private long[] ids;
+    private int counter;
+
+    @Setup
+    public void setup() {
+        context = BenchmarkApplications.start(WebApplicationType.NONE);
+        orderRepository = context.getBean(OrderRepository.class);
+
+        List<Order> orders = new ArrayList<>(tableSize);
+        for (int i = 0; i < tableSize; i++) {
+            orders.add(BenchmarkApplications.newOrder(i));
+        }
+        ids = orderRepository.saveAll(orders).stream().mapToLong(Order::getId).toArray();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Order save() {
+        return orderRepository.save(BenchmarkApplications.newOrder(counter++));
+    }
+
+    @Benchmark
+    public Optional<Order> findById() {
+        return orderRepository.findById(ids[ThreadLocalRandom.current().nextInt(ids.length)]);
+    }
+
+    @Benchmark
+    public List<Order> findAll() {
+        return orderRepository.findAll();
+    }
+
+    @Benchmark
+    public List<Order> findFirstKeysetPage() {
+        return orderRepository.findByIdGreaterThanOrderByIdAsc(0L, PageRequest.ofSize(100));
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.ordermanagement.benchmark;
+
+import com.example.ordermanagement.config.CborConfig;
+import com.example.ordermanagement.entity.Order;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON against CBOR for one order and for a list of orders, the two shapes OrderController serves.
+ * Encoded sizes are printed at setup, since JMH only reports times.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderWireFormatBenchmark {
+
+    @Param({"1", "100"})
+    public int orderCount;
+
+    private ObjectWriter jsonWriter;
+    private ObjectReader jsonReader;
+    private ObjectWriter cborWriter;
+    private ObjectReader cborReader;
+    private List<Order> orders;
+    private byte[] json;
+    private byte[] cbor;
+
+    @Setup
+    public void setup() throws IOException {
+        ObjectMapper jsonMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        ObjectMapper cborMapper = CborConfig.cborMapper(jsonMapper);
+        jsonWriter = jsonMapper.writerFor(Order[].class);
+        jsonReader = jsonMapper.readerFor(Order[].class);
+        cborWriter = cborMapper.writerFor(Order[].class);
+        cborReader = cborMapper.readerFor(Order[].class);
+
+        orders = new ArrayList<>(orderCount);
+        for (int i = 0; i < orderCount; i++) {
+            orders.add(BenchmarkApplications.newOrder(i));
+        }
+        json = encodeJson();
+        cbor = encodeCbor();
+        System.out.printf("%n%d order(s): JSON %d bytes, CBOR %d bytes (%.0f%%)%n",
+                orderCount, json.length, cbor.length, 100.0 * cbor.length / json.length);
+    }
+
+    @Benchmark
+    public byte[] encodeJson() throws IOException {
+        return jsonWriter.writeValueAsBytes(orders.toArray(new Order[0]));
+    }
+
+    @Benchmark
+    public byte[] encodeCbor() throws IOException {
+        return cborWriter.writeValueAsBytes(orders.toArray(new Order[0]));
+    }
+
+    @Benchmark
+    public Order[] decodeJson() throws IOException {
+        return jsonReader.readValue(json);
+    }
+
+    @Benchmark
+    public Order[] decodeCbor() throws IOException {
+        return cborReader.readValue(cbor);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.ordermanagement.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time from a cold JVM to a ready servlet application, with the default settings and with the fast-start profile
+ * (lazy initialization, schema script instead of Hibernate schema update). Each fork starts the application once,
+ * so the score is the mean over the forks. Run with -Dspring.aot.enabled=true on an -Paot build to include AOT.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+public class StartupBenchmark {
+
+    @Param({"default", "fast-start"})
+    public String profile;
+
+    @Benchmark
+    public int startAndStop() {
+        ConfigurableApplicationContext context = profile.equals("default")
+                ? BenchmarkApplications.start(WebApplicationType.SERVLET)
+                : BenchmarkApplications.start(WebApplicationType.SERVLET, profile);
+        int beans = context.getBeanDefinitionCount();
+        context.close();
+        return beans;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.ordermanagement.load;
+
+/**
+ * The requests the load test sends, named as in the --mix argument.
+ */
+enum Operation {
+
+    CREATE("create", "POST /orders"),
+    READ("read", "GET /orders/{id}"),
+    UPDATE("update", "PUT /orders/{id}"),
+    DELETE("delete", "DELETE /orders/{id}"),
+    LIST("list", "GET /orders");
+
+    private final String key;
+    private final String endpoint;
+
+    Operation(String key, String endpoint) {
+        this.key = key;
+        this.endpoint = endpoint;
+    }
+
+    String key() {
+        return key;
+    }
+
+    String endpoint() {
+        return endpoint;
+    }
+
+    boolean needsExistingOrder() {
+        return this == READ || this == UPDATE || this == DELETE;
+    }
+
+    static Operation of(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation '" + key + "', expected create, read, update, delete or list");
+    }
+}
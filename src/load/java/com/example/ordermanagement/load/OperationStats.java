@@ -0,0 +1,87 @@
+package com.example.ordermanagement.load;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies and outcomes of one operation. Responses are recorded from the HTTP client's threads without locking;
+ * the reporter collects them once per interval and adds the intervals after the warmup to the totals.
+ * <p>
+ * Only successful and expected responses go into the latency histogram, so fast rejections cannot make the
+ * percentiles look better. Expected responses are the ones the test provokes itself: 404 for an order another
+ * request just deleted, 409 and 412 for concurrent updates of the same order.
+ */
+final class OperationStats {
+
+    private final Operation operation;
+    private final Recorder recorder = new Recorder(3);
+    private final LongAdder expected = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    // Only touched by the reporter thread
+    private final Histogram total = new Histogram(3);
+    private long totalExpected;
+    private long totalErrors;
+
+    OperationStats(Operation operation) {
+        this.operation = operation;
+    }
+
+    Operation operation() {
+        return operation;
+    }
+
+    /**
+     * @param latencyNanos Time from when the request was due to be sent, not from when it was sent, so a stalled
+     *                     sender does not hide the delay (coordinated omission).
+     */
+    void recordResponse(int status, long latencyNanos) {
+        if (status >= 200 && status < 300) {
+            recorder.recordValue(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+        } else if (status == 404 || status == 409 || status == 412) {
+            recorder.recordValue(TimeUnit.NANOSECONDS.toMicros(latencyNanos));
+            expected.increment();
+        } else {
+            errors.increment();
+        }
+    }
+
+    // Timeouts, connection failures and requests not sent because too many were outstanding
+    void recordFailure() {
+        errors.increment();
+    }
+
+    Interval collect(boolean measured) {
+        Histogram histogram = recorder.getIntervalHistogram();
+        Interval interval = new Interval(histogram, expected.sumThenReset(), errors.sumThenReset());
+        if (measured) {
+            total.add(histogram);
+            totalExpected += interval.expected();
+            totalErrors += interval.errors();
+        }
+        return interval;
+    }
+
+    Interval total() {
+        return new Interval(total, totalExpected, totalErrors);
+    }
+
+    record Interval(Histogram histogram, long expected, long errors) {
+
+        long requests() {
+            return histogram.getTotalCount() + errors;
+        }
+
+        double errorRate() {
+            return requests() == 0 ? 0 : (double) errors / requests();
+        }
+
+        // Latency at the percentile in milliseconds
+        double percentile(double percentile) {
+            return histogram.getValueAtPercentile(percentile) / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.ordermanagement.load;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * IDs of the orders that exist, so reads, updates and deletes target real orders picked at random.
+ * A delete takes its ID out first, so later requests rarely aim at an order that is already gone.
+ */
+final class OrderIdPool {
+
+    private long[] ids = new long[1024];
+    private int size;
+
+    synchronized void add(long id) {
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        ids[size++] = id;
+    }
+
+    // A random ID, or -1 when there are none
+    synchronized long pick() {
+        return size == 0 ? -1 : ids[ThreadLocalRandom.current().nextInt(size)];
+    }
+
+    // Removes and returns a random ID, or -1 when there are none
+    synchronized long take() {
+        if (size == 0) {
+            return -1;
+        }
+        int index = ThreadLocalRandom.current().nextInt(size);
+        long id = ids[index];
+        ids[index] = ids[--size];
+        return id;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+}
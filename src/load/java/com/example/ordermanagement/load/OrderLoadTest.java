@@ -0,0 +1,429 @@
+package com.example.ordermanagement.load;
+
+import com.example.ordermanagement.OrderManagementApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Boots the application on a random port and sends it a fixed rate of create, read, update, delete and list
+ * requests, then checks the results against service level objectives and exits with status 1 if any is missed.
+ * <p>
+ * The load is an open model: requests are sent when they are due whatever the responses are doing, as real clients
+ * would, using the asynchronous JDK HTTP client. Latency is measured from when a request was due, so a stalled
+ * server or sender shows up in the percentiles instead of quietly lowering the rate. Latencies are recorded per
+ * operation in HdrHistograms. Heap and GC figures come from this JVM, which runs both the application and the load
+ * generator.
+ * <p>
+ * Arguments are --name=value pairs; see {@link Settings}. Any other --name=value argument is passed on to the
+ * application, e.g. --orders.admission.enabled=true.
+ */
+public final class OrderLoadTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final Settings settings;
+    private final HttpClient client;
+    private final String baseUrl;
+    private final OrderIdPool ids = new OrderIdPool();
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final Operation[] mix;
+
+    private OrderLoadTest(Settings settings, String baseUrl) {
+        this.settings = settings;
+        this.baseUrl = baseUrl;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(settings.timeout)
+                .build();
+        for (Operation operation : Operation.values()) {
+            stats.put(operation, new OperationStats(operation));
+        }
+        // One slot per unit of weight, so picking an operation is a single random index
+        List<Operation> slots = new ArrayList<>();
+        settings.mix.forEach((operation, weight) -> {
+            for (int i = 0; i < weight; i++) {
+                slots.add(operation);
+            }
+        });
+        this.mix = slots.toArray(new Operation[0]);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Settings settings = Settings.parse(args);
+        boolean passed;
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(OrderManagementApplication.class)
+                .profiles(settings.profiles)
+                .logStartupInfo(false)
+                .run(settings.applicationArgs())) {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port") + "/orders";
+            passed = new OrderLoadTest(settings, baseUrl).run();
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    private boolean run() throws Exception {
+        System.out.printf(Locale.ROOT, "Seeding %d orders, then %.0f requests/s for %s after a %s warmup; mix %s%n",
+                settings.seedOrders, settings.rate, settings.duration, settings.warmup, settings.mix);
+        seed();
+
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / settings.rate);
+        long start = System.nanoTime();
+        long measureFrom = start + settings.warmup.toNanos();
+        long end = measureFrom + settings.duration.toNanos();
+        JvmSnapshot[] baseline = new JvmSnapshot[1];
+        JvmSnapshot[] previous = new JvmSnapshot[1];
+
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "load-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Warmup results are collected and dropped
+        reporter.schedule(() -> {
+            stats.values().forEach(operationStats -> operationStats.collect(false));
+            ManagementFactory.getMemoryPoolMXBeans().forEach(MemoryPoolMXBean::resetPeakUsage);
+            baseline[0] = JvmSnapshot.take();
+            previous[0] = baseline[0];
+        }, settings.warmup.toNanos(), TimeUnit.NANOSECONDS);
+        long reportNanos = settings.reportInterval.toNanos();
+        reporter.scheduleAtFixedRate(() -> {
+            if (System.nanoTime() - end < 0) {
+                previous[0] = report(previous[0], reportNanos);
+            }
+        }, settings.warmup.toNanos() + reportNanos, reportNanos, TimeUnit.NANOSECONDS);
+
+        // Open model: request k is due at start + k * interval; a sender that falls behind catches up at once
+        for (long k = 0; ; k++) {
+            long due = start + k * intervalNanos;
+            if (due - end >= 0) {
+                break;
+            }
+            long wait;
+            while ((wait = due - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            send(mix[ThreadLocalRandom.current().nextInt(mix.length)], due);
+        }
+        long drainUntil = System.nanoTime() + settings.timeout.toNanos();
+        while (outstanding.get() > 0 && System.nanoTime() - drainUntil < 0) {
+            Thread.sleep(10);
+        }
+        reporter.shutdown();
+        reporter.awaitTermination(1, TimeUnit.MINUTES);
+
+        stats.values().forEach(operationStats -> operationStats.collect(true));
+        return summarize(baseline[0], JvmSnapshot.take());
+    }
+
+    // Creates the starting orders 100 at a time
+    private void seed() {
+        List<CompletableFuture<?>> batch = new ArrayList<>();
+        for (int i = 0; i < settings.seedOrders; i++) {
+            batch.add(client.sendAsync(createRequest(), HttpResponse.BodyHandlers.ofString())
+                    .thenAccept(response -> addCreated(response.statusCode(), response.body())));
+            if (batch.size() == 100 || i == settings.seedOrders - 1) {
+                CompletableFuture.allOf(batch.toArray(new CompletableFuture[0])).join();
+                batch.clear();
+            }
+        }
+    }
+
+    private void send(Operation operation, long due) {
+        long id = -1;
+        if (operation.needsExistingOrder()) {
+            id = operation == Operation.DELETE ? ids.take() : ids.pick();
+            if (id < 0) {
+                operation = Operation.CREATE;
+            }
+        }
+        OperationStats operationStats = stats.get(operation);
+        if (outstanding.get() >= settings.maxOutstanding) {
+            operationStats.recordFailure();
+            if (operation == Operation.DELETE) {
+                ids.add(id);
+            }
+            return;
+        }
+
+        HttpRequest request = switch (operation) {
+            case CREATE -> createRequest();
+            case READ -> HttpRequest.newBuilder(URI.create(baseUrl + "/" + id)).timeout(settings.timeout).GET().build();
+            case UPDATE -> HttpRequest.newBuilder(URI.create(baseUrl + "/" + id)).timeout(settings.timeout)
+                    .header("Content-Type", "application/json")
+                    .PUT(HttpRequest.BodyPublishers.ofString(orderJson()))
+                    .build();
+            case DELETE -> HttpRequest.newBuilder(URI.create(baseUrl + "/" + id)).timeout(settings.timeout).DELETE().build();
+            case LIST -> HttpRequest.newBuilder(URI.create(baseUrl + "?limit=100")).timeout(settings.timeout).GET().build();
+        };
+        Operation sent = operation;
+        long orderId = id;
+        outstanding.incrementAndGet();
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, ex) -> {
+            long latency = System.nanoTime() - due;
+            outstanding.decrementAndGet();
+            if (ex != null) {
+                operationStats.recordFailure();
+                return;
+            }
+            operationStats.recordResponse(response.statusCode(), latency);
+            if (sent == Operation.CREATE) {
+                addCreated(response.statusCode(), response.body());
+            } else if (sent == Operation.DELETE && response.statusCode() >= 300 && response.statusCode() != 404) {
+                // Not deleted, so still a target for other requests
+                ids.add(orderId);
+            }
+        });
+    }
+
+    private HttpRequest createRequest() {
+        return HttpRequest.newBuilder(URI.create(baseUrl)).timeout(settings.timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(orderJson()))
+                .build();
+    }
+
+    private static String orderJson() {
+        int i = ThreadLocalRandom.current().nextInt(1_000_000);
+        return String.format(Locale.ROOT, "{ \"customerName\": \"Customer %d\", \"shippingAddress\": \"%d Load Test St\", "
+                + "\"total\": %.2f }", i % 1000, i, 10.0 + i % 500);
+    }
+
+    private void addCreated(int status, String body) {
+        if (status >= 200 && status < 300) {
+            try {
+                ids.add(OBJECT_MAPPER.readTree(body).get("id").asLong());
+            } catch (IOException ex) {
+                throw new IllegalStateException("Unexpected response to POST /orders: " + body, ex);
+            }
+        }
+    }
+
+    // One line per interval: throughput, errors and p99 over all operations, heap and GC
+    private JvmSnapshot report(JvmSnapshot previous, long intervalNanos) {
+        Histogram all = new Histogram(3);
+        long requests = 0;
+        long errors = 0;
+        for (OperationStats operationStats : stats.values()) {
+            OperationStats.Interval interval = operationStats.collect(true);
+            all.add(interval.histogram());
+            requests += interval.requests();
+            errors += interval.errors();
+        }
+        JvmSnapshot current = JvmSnapshot.take();
+        System.out.printf(Locale.ROOT, "%8.1f req/s %6d errors  p50 %8.2f ms  p99 %8.2f ms  max %8.2f ms  "
+                        + "heap %5d MB (%5d MB after GC)  GC %3d in %5d ms  %d orders%n",
+                requests * (double) TimeUnit.SECONDS.toNanos(1) / intervalNanos, errors,
+                all.getValueAtPercentile(50) / 1000.0, all.getValueAtPercentile(99) / 1000.0, all.getMaxValue() / 1000.0,
+                current.heapUsed >> 20, current.heapAfterGc >> 20, current.gcCount - previous.gcCount,
+                current.gcMillis - previous.gcMillis, ids.size());
+        return current;
+    }
+
+    private boolean summarize(JvmSnapshot baseline, JvmSnapshot last) throws IOException {
+        double seconds = settings.duration.toNanos() / (double) TimeUnit.SECONDS.toNanos(1);
+        long requests = 0;
+        long errors = 0;
+        List<String> breaches = new ArrayList<>();
+        Files.createDirectories(settings.output);
+
+        System.out.printf("%n%-20s %9s %9s %8s %8s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "req/s", "expected", "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (OperationStats operationStats : stats.values()) {
+            OperationStats.Interval total = operationStats.total();
+            Operation operation = operationStats.operation();
+            requests += total.requests();
+            errors += total.errors();
+            if (total.requests() == 0) {
+                continue;
+            }
+            System.out.printf(Locale.ROOT, "%-20s %9d %9.1f %8d %8d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    operation.endpoint(), total.requests(), total.requests() / seconds, total.expected(), total.errors(),
+                    total.percentile(50), total.percentile(90), total.percentile(99), total.percentile(99.9),
+                    total.histogram().getMaxValue() / 1000.0);
+            try (PrintStream out = new PrintStream(Files.newOutputStream(settings.output.resolve(operation.key() + ".hgrm")))) {
+                total.histogram().outputPercentileDistribution(out, 1000.0);
+            }
+
+            Duration target = settings.sloP99.getOrDefault(operation, settings.sloP99Default);
+            if (total.histogram().getTotalCount() > 0 && total.percentile(99) > target.toNanos() / 1e6) {
+                breaches.add(String.format(Locale.ROOT, "%s p99 %.2f ms is over %s", operation.endpoint(),
+                        total.percentile(99), target));
+            }
+        }
+
+        double throughput = requests / seconds;
+        double errorRate = requests == 0 ? 0 : (double) errors / requests;
+        long peakHeap = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .mapToLong(pool -> pool.getPeakUsage().getUsed())
+                .sum();
+        System.out.printf(Locale.ROOT, "%nThroughput %.1f req/s of %.0f offered, error rate %.4f%%%n",
+                throughput, settings.rate, errorRate * 100);
+        System.out.printf(Locale.ROOT, "Heap peak %d MB, after GC %d MB at the start and %d MB at the end; "
+                        + "GC %d collections, %d ms (%.2f%% of the run)%n",
+                peakHeap >> 20, baseline.heapAfterGc >> 20, last.heapAfterGc >> 20, last.gcCount - baseline.gcCount,
+                last.gcMillis - baseline.gcMillis, (last.gcMillis - baseline.gcMillis) / (seconds * 10));
+        System.out.println("Latency distributions written to " + settings.output.toAbsolutePath());
+
+        if (errorRate > settings.sloErrorRate) {
+            breaches.add(String.format(Locale.ROOT, "error rate %.4f%% is over %.4f%%", errorRate * 100,
+                    settings.sloErrorRate * 100));
+        }
+        if (throughput < settings.rate * settings.sloThroughput) {
+            breaches.add(String.format(Locale.ROOT, "throughput %.1f req/s is under %.0f%% of the %.0f offered",
+                    throughput, settings.sloThroughput * 100, settings.rate));
+        }
+        if (breaches.isEmpty()) {
+            System.out.println("All SLOs met");
+            return true;
+        }
+        breaches.forEach(breach -> System.out.println("SLO missed: " + breach));
+        return false;
+    }
+
+    /**
+     * Heap and GC counters of this JVM at one point in time.
+     */
+    private record JvmSnapshot(long heapUsed, long heapAfterGc, long gcCount, long gcMillis) {
+
+        static JvmSnapshot take() {
+            long heapAfterGc = 0;
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                MemoryUsage afterGc = pool.getCollectionUsage();
+                if (pool.getType() == MemoryType.HEAP && afterGc != null) {
+                    heapAfterGc += afterGc.getUsed();
+                }
+            }
+            long gcCount = 0;
+            long gcMillis = 0;
+            for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+                gcCount += Math.max(0, collector.getCollectionCount());
+                gcMillis += Math.max(0, collector.getCollectionTime());
+            }
+            return new JvmSnapshot(ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed(), heapAfterGc,
+                    gcCount, gcMillis);
+        }
+    }
+
+    /**
+     * Load test arguments and their defaults.
+     */
+    static final class Settings {
+
+        // Requests per second over all operations
+        double rate = 200;
+        // Measured run, after the warmup
+        Duration duration = Duration.ofSeconds(60);
+        Duration warmup = Duration.ofSeconds(10);
+        Duration reportInterval = Duration.ofSeconds(10);
+        // Relative weight of each operation
+        Map<Operation, Integer> mix = parseMix("create:10,read:50,update:15,delete:5,list:20");
+        int seedOrders = 1000;
+        // Requests still waiting for a response beyond which further ones count as failed without being sent
+        int maxOutstanding = 10000;
+        Duration timeout = Duration.ofSeconds(10);
+        Path output = Path.of("target", "load");
+        String[] profiles = new String[0];
+        // SLOs: p99 latency per operation (slo-p99.<operation> overrides slo-p99), share of failed requests, and
+        // throughput reached as a share of the offered rate
+        Duration sloP99Default = Duration.ofMillis(250);
+        Map<Operation, Duration> sloP99 = new EnumMap<>(Operation.class);
+        double sloErrorRate = 0.001;
+        double sloThroughput = 0.95;
+        // Passed on to the application; arguments of the same name replace these
+        final Map<String, String> application = new LinkedHashMap<>(Map.of(
+                "server.port", "0",
+                "logging.level.root", "WARN",
+                "logging.level.org.hibernate.SQL", "OFF",
+                "logging.level.org.hibernate.type", "OFF"));
+
+        static Settings parse(String[] args) {
+            Settings settings = new Settings();
+            for (String arg : args) {
+                int equals = arg.indexOf('=');
+                if (!arg.startsWith("--") || equals < 0) {
+                    throw new IllegalArgumentException("Expected --name=value, got '" + arg + "'");
+                }
+                String name = arg.substring(2, equals);
+                String value = arg.substring(equals + 1);
+                if (name.startsWith("slo-p99.")) {
+                    settings.sloP99.put(Operation.of(name.substring("slo-p99.".length())), DurationStyle.detectAndParse(value));
+                    continue;
+                }
+                switch (name) {
+                    case "rate" -> settings.rate = Double.parseDouble(value);
+                    case "duration" -> settings.duration = DurationStyle.detectAndParse(value);
+                    case "warmup" -> settings.warmup = DurationStyle.detectAndParse(value);
+                    case "report-interval" -> settings.reportInterval = DurationStyle.detectAndParse(value);
+                    case "mix" -> settings.mix = parseMix(value);
+                    case "seed-orders" -> settings.seedOrders = Integer.parseInt(value);
+                    case "max-outstanding" -> settings.maxOutstanding = Integer.parseInt(value);
+                    case "timeout" -> settings.timeout = DurationStyle.detectAndParse(value);
+                    case "output" -> settings.output = Path.of(value);
+                    case "profiles" -> settings.profiles = value.isEmpty() ? new String[0] : value.split(",");
+                    case "slo-p99" -> settings.sloP99Default = DurationStyle.detectAndParse(value);
+                    case "slo-error-rate" -> settings.sloErrorRate = Double.parseDouble(value);
+                    case "slo-throughput" -> settings.sloThroughput = Double.parseDouble(value);
+                    default -> settings.application.put(name, value);
+                }
+            }
+            return settings;
+        }
+
+        static Map<Operation, Integer> parseMix(String mix) {
+            Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+            for (String entry : mix.split(",")) {
+                String[] parts = entry.trim().split(":");
+                if (parts.length != 2) {
+                    throw new IllegalArgumentException("Expected operation:weight in the mix, got '" + entry + "'");
+                }
+                int weight = Integer.parseInt(parts[1]);
+                if (weight > 0) {
+                    weights.put(Operation.of(parts[0]), weight);
+                }
+            }
+            if (weights.isEmpty()) {
+                throw new IllegalArgumentException("The mix needs at least one operation with a positive weight");
+            }
+            return weights;
+        }
+
+        String[] applicationArgs() {
+            return application.entrySet().stream()
+                    .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                    .toArray(String[]::new);
+        }
+    }
+}
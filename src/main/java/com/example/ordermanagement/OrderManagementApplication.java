@@ -1,9 +1,13 @@
 package com.example.ordermanagement;
 
+import com.example.ordermanagement.config.OrderRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+// Reflection and resource hints for the AOT-processed and native builds
+@ImportRuntimeHints(OrderRuntimeHints.class)
 public class OrderManagementApplication {
 
     public static void main(String[] args) {
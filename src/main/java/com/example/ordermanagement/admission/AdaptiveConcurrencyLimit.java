@@ -0,0 +1,79 @@
+package com.example.ordermanagement.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A concurrency limit that adapts to the latency it observes (additive increase, multiplicative decrease).
+ * <p>
+ * A request slower than the latency target means the requests behind it are queueing, so the limit is multiplied by
+ * the backoff ratio. Only requests that started after the last decrease count, so one slow burst shrinks the limit
+ * once rather than once per request. While the limit is in use and requests are fast enough, it grows by one per
+ * limit's worth of requests, up to the maximum.
+ */
+public final class AdaptiveConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyTargetNanos;
+    private final double backoffRatio;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    // Read on every request without locking; changed under the lock together with the fractional limit
+    private volatile int limit;
+    private double estimatedLimit;
+    private long lastDecrease;
+
+    public AdaptiveConcurrencyLimit(int minLimit, int maxLimit, long latencyTargetNanos, double backoffRatio) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.latencyTargetNanos = latencyTargetNanos;
+        this.backoffRatio = backoffRatio;
+        this.estimatedLimit = this.maxLimit;
+        this.limit = this.maxLimit;
+        this.lastDecrease = System.nanoTime();
+    }
+
+    /**
+     * @return Whether the request may start; if so, {@link #release} must be called once it has finished.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Ends a request admitted by {@link #tryAcquire} and adjusts the limit to its latency.
+     *
+     * @param startNanos {@link System#nanoTime()} when the request was admitted.
+     * @param endNanos   {@link System#nanoTime()} when it finished.
+     */
+    public void release(long startNanos, long endNanos) {
+        int inFlightBefore = inFlight.getAndDecrement();
+        synchronized (this) {
+            if (endNanos - startNanos > latencyTargetNanos) {
+                if (startNanos - lastDecrease >= 0) {
+                    estimatedLimit = Math.max(minLimit, estimatedLimit * backoffRatio);
+                    lastDecrease = endNanos;
+                }
+            } else if (inFlightBefore * 2 >= limit) {
+                estimatedLimit = Math.min(maxLimit, estimatedLimit + 1.0 / estimatedLimit);
+            }
+            limit = (int) estimatedLimit;
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.ordermanagement.admission;
+
+import com.example.ordermanagement.exception.ServiceUnavailableException;
+import com.example.ordermanagement.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides whether an order request may run before any of its handler code (and therefore any database work) does.
+ * Switched on with orders.admission.enabled=true.
+ * <p>
+ * First each client is held to its request rate by a {@link ClientRateLimiter}; clients over it get 429 Too Many
+ * Requests with a Retry-After header. Then the request needs a slot from the {@link AdaptiveConcurrencyLimit} of its
+ * {@link EndpointClass}; when they are all taken it gets 503 Service Unavailable straight away rather than queueing
+ * for a connection. Both are thrown as exceptions, so the response body comes from OrderExceptionHandler like any
+ * other error. Streamed responses keep their slot until the stream is finished.
+ */
+@Component
+@ConditionalOnProperty(name = "orders.admission.enabled", havingValue = "true")
+public class AdmissionControlInterceptor implements AsyncHandlerInterceptor, MeterBinder {
+
+    private static final String SLOT_ATTRIBUTE = AdmissionControlInterceptor.class.getName() + ".SLOT";
+
+    private final ClientRateLimiter rateLimiter;
+    private final String clientHeader;
+    private final Map<EndpointClass, AdaptiveConcurrencyLimit> limits = new EnumMap<>(EndpointClass.class);
+    private final Map<EndpointClass, LongAdder> concurrencyRejections = new EnumMap<>(EndpointClass.class);
+    private final LongAdder rateRejections = new LongAdder();
+
+    @Autowired
+    public AdmissionControlInterceptor(Environment environment,
+                                       @Value("${orders.admission.client-header:}") String clientHeader,
+                                       @Value("${orders.admission.client-rate:50}") double clientRate,
+                                       @Value("${orders.admission.client-burst:100}") int clientBurst,
+                                       @Value("${orders.admission.max-clients:10000}") int maxClients,
+                                       @Value("${orders.admission.min-limit:1}") int minLimit,
+                                       @Value("${orders.admission.backoff-ratio:0.9}") double backoffRatio) {
+        this.rateLimiter = new ClientRateLimiter(clientRate, clientBurst, maxClients);
+        this.clientHeader = clientHeader;
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            String prefix = "orders.admission." + endpointClass.key() + ".";
+            int maxLimit = environment.getProperty(prefix + "max-limit", Integer.class, endpointClass.defaultMaxLimit());
+            long latencyTarget = DurationStyle.detectAndParse(
+                    environment.getProperty(prefix + "latency-target", endpointClass.defaultLatencyTarget())).toNanos();
+            limits.put(endpointClass, new AdaptiveConcurrencyLimit(minLimit, maxLimit, latencyTarget, backoffRatio));
+            concurrencyRejections.put(endpointClass, new LongAdder());
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Admitted on the original dispatch; the slot covers the async dispatch too
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            return true;
+        }
+        long now = System.nanoTime();
+        long wait = rateLimiter.tryAcquire(clientOf(request), now);
+        if (wait > 0) {
+            rateRejections.increment();
+            throw new TooManyRequestsException("Request rate limit exceeded, please slow down",
+                    Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1)));
+        }
+
+        EndpointClass endpointClass = EndpointClass.of(request);
+        if (endpointClass == null) {
+            return true;
+        }
+        AdaptiveConcurrencyLimit limit = limits.get(endpointClass);
+        if (!limit.tryAcquire()) {
+            concurrencyRejections.get(endpointClass).increment();
+            throw new ServiceUnavailableException("Too many concurrent " + endpointClass.key()
+                    + " requests, please retry later");
+        }
+        request.setAttribute(SLOT_ATTRIBUTE, new Slot(limit, now));
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Normally released by afterCompletion of the async dispatch; the listener covers async requests that end
+        // without one
+        Slot slot = (Slot) request.getAttribute(SLOT_ATTRIBUTE);
+        if (slot != null) {
+            request.getAsyncContext().addListener(slot);
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Slot slot = (Slot) request.getAttribute(SLOT_ATTRIBUTE);
+        if (slot != null) {
+            request.removeAttribute(SLOT_ATTRIBUTE);
+            slot.release();
+        }
+    }
+
+    private String clientOf(HttpServletRequest request) {
+        if (!clientHeader.isEmpty()) {
+            String client = request.getHeader(clientHeader);
+            if (client != null && !client.isBlank()) {
+                return client;
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("orders.admission.throttled", rateRejections, LongAdder::sum)
+                .description("Order requests rejected with 429 for exceeding their client's request rate")
+                .register(registry);
+        Gauge.builder("orders.admission.clients", rateLimiter, ClientRateLimiter::getClientCount)
+                .description("Clients with a partly used request rate bucket")
+                .register(registry);
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            AdaptiveConcurrencyLimit limit = limits.get(endpointClass);
+            FunctionCounter.builder("orders.admission.shed", concurrencyRejections.get(endpointClass), LongAdder::sum)
+                    .description("Order requests rejected with 503 because the concurrency limit was reached")
+                    .tag("endpoint", endpointClass.key())
+                    .register(registry);
+            Gauge.builder("orders.admission.limit", limit, AdaptiveConcurrencyLimit::getLimit)
+                    .description("Current concurrency limit")
+                    .tag("endpoint", endpointClass.key())
+                    .register(registry);
+            Gauge.builder("orders.admission.running", limit, AdaptiveConcurrencyLimit::getInFlight)
+                    .description("Admitted order requests still running")
+                    .tag("endpoint", endpointClass.key())
+                    .register(registry);
+        }
+    }
+
+    // A taken concurrency slot; released exactly once, by whichever of afterCompletion and the async listener
+    // comes first
+    private static final class Slot implements AsyncListener {
+
+        private final AdaptiveConcurrencyLimit limit;
+        private final long startNanos;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        Slot(AdaptiveConcurrencyLimit limit, long startNanos) {
+            this.limit = limit;
+            this.startNanos = startNanos;
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                limit.release(startNanos, System.nanoTime());
+            }
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // The slot stays taken across further async cycles
+        }
+    }
+}
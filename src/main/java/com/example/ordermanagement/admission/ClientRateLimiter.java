@@ -0,0 +1,78 @@
+package com.example.ordermanagement.admission;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket per client: each client may send up to burst requests at once, refilled at rate per second.
+ * <p>
+ * Each bucket is a single long, the time at which it will be full again (the generic cell rate algorithm), updated
+ * with compare-and-set. The buckets live in a {@link ConcurrentHashMap}, which already stripes its locks per bin and
+ * reads without locking, so clients never contend with each other. A full bucket holds no information, so buckets
+ * are dropped once full; when maxClients buckets are in use anyway, further new clients share one bucket, which keeps
+ * memory bounded when client identities are made up.
+ */
+public final class ClientRateLimiter {
+
+    static final String OVERFLOW_CLIENT = "";
+
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final ConcurrentMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final int maxClients;
+    private final AtomicLong lastSweep;
+
+    public ClientRateLimiter(double ratePerSecond, int burst, int maxClients) {
+        this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond));
+        this.burstNanos = intervalNanos * Math.max(1, burst);
+        this.maxClients = Math.max(1, maxClients);
+        this.lastSweep = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Takes a token from the client's bucket.
+     *
+     * @param now The current {@link System#nanoTime()}.
+     * @return 0 if the request is admitted, otherwise the nanoseconds until the client's next token.
+     */
+    public long tryAcquire(String client, long now) {
+        AtomicLong bucket = buckets.get(client);
+        if (bucket == null) {
+            if (buckets.size() >= maxClients) {
+                sweep(now);
+                if (buckets.size() >= maxClients) {
+                    client = OVERFLOW_CLIENT;
+                }
+            }
+            bucket = buckets.computeIfAbsent(client, key -> new AtomicLong(now));
+        }
+        while (true) {
+            long full = bucket.get();
+            long next = (full - now > 0 ? full : now) + intervalNanos;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(full, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // Drops full buckets, at most once a second. A request racing with the removal may update a dropped bucket;
+    // its client then simply starts over with a full one.
+    private void sweep(long now) {
+        long last = lastSweep.get();
+        if (now - last >= SWEEP_INTERVAL_NANOS && lastSweep.compareAndSet(last, now)) {
+            buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+        }
+    }
+
+    public int getClientCount() {
+        return buckets.size();
+    }
+}
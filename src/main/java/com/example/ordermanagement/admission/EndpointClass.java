@@ -0,0 +1,66 @@
+package com.example.ordermanagement.admission;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+import java.util.regex.Pattern;
+
+/**
+ * The kinds of order requests that get their own concurrency limit, so a storm of one kind cannot take the
+ * database connections the others need.
+ */
+public enum EndpointClass {
+
+    // GET /orders, search, statistics and the report: scans that can hold a connection for long
+    READ_ALL("read-all", 4, "500ms"),
+    // GET /orders/{id}, GET /orders?ids= and POST /orders/_mget: primary key lookups, often served from the cache
+    POINT_READ("point-read", 100, "50ms"),
+    // POST, PUT, PATCH and DELETE
+    WRITE("write", 20, "200ms");
+
+    private static final Pattern ORDER_ID_PATH = Pattern.compile("/orders/\\d+");
+
+    private final String key;
+    private final int defaultMaxLimit;
+    private final String defaultLatencyTarget;
+
+    EndpointClass(String key, int defaultMaxLimit, String defaultLatencyTarget) {
+        this.key = key;
+        this.defaultMaxLimit = defaultMaxLimit;
+        this.defaultLatencyTarget = defaultLatencyTarget;
+    }
+
+    // Name used in the orders.admission.<key>.* properties and the endpoint metric tag
+    public String key() {
+        return key;
+    }
+
+    int defaultMaxLimit() {
+        return defaultMaxLimit;
+    }
+
+    String defaultLatencyTarget() {
+        return defaultLatencyTarget;
+    }
+
+    /**
+     * @return The class of the request, or null for GET /orders/changes, whose streams stay open for minutes but
+     * are fed from memory, so they are rate limited but not counted against a concurrency limit.
+     */
+    public static EndpointClass of(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        String method = request.getMethod();
+        if ("GET".equals(method) || "HEAD".equals(method)) {
+            if (path.startsWith("/orders/changes")) {
+                return null;
+            }
+            if (request.getParameter("ids") != null || ORDER_ID_PATH.matcher(path).matches()) {
+                return POINT_READ;
+            }
+            return READ_ALL;
+        }
+        if ("POST".equals(method) && path.equals("/orders/_mget")) {
+            return POINT_READ;
+        }
+        return WRITE;
+    }
+}
@@ -0,0 +1,224 @@
+package com.example.ordermanagement.archive;
+
+import com.example.ordermanagement.entity.Order;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * An immutable archive file of orders in ascending ID order, read through a memory mapping.
+ * <p>
+ * On disk: the orders in blocks of up to orders.archive.block-size, each compressed with Deflate on its own; then
+ * the sparse index, one entry per block (first ID, offset, compressed and uncompressed length); then a fixed-size
+ * footer (index offset, block count, order count, smallest and largest ID, magic number). Inside a block each order
+ * is its ID, the length of its JSON and the JSON. The index is kept on the heap, so a lookup binary-searches it and
+ * inflates a single block.
+ */
+final class ArchiveSegment {
+
+    private static final int MAGIC = 0x4f415243;
+    private static final int INDEX_ENTRY_SIZE = 24;
+    private static final int FOOTER_SIZE = 36;
+
+    private final int index;
+    private final MappedByteBuffer buffer;
+    private final long[] firstIds;
+    private final int[] offsets;
+    private final int[] compressedLengths;
+    private final int[] lengths;
+    private final int orderCount;
+    private final long minId;
+    private final long maxId;
+
+    private ArchiveSegment(int index, MappedByteBuffer buffer, long[] firstIds, int[] offsets, int[] compressedLengths,
+                           int[] lengths, int orderCount, long minId, long maxId) {
+        this.index = index;
+        this.buffer = buffer;
+        this.firstIds = firstIds;
+        this.offsets = offsets;
+        this.compressedLengths = compressedLengths;
+        this.lengths = lengths;
+        this.orderCount = orderCount;
+        this.minId = minId;
+        this.maxId = maxId;
+    }
+
+    static Path path(Path directory, int index) {
+        return directory.resolve(String.format("archive-%010d.seg", index));
+    }
+
+    /**
+     * Writes the orders to a new segment file and makes it durable before it becomes visible under its name, and
+     * makes the name durable before returning.
+     *
+     * @param orders Orders in ascending ID order, at least one.
+     */
+    static ArchiveSegment write(Path directory, int index, List<Order> orders, int blockSize, ObjectWriter writer)
+            throws IOException {
+        int blocks = (orders.size() + blockSize - 1) / blockSize;
+        long[] firstIds = new long[blocks];
+        int[] offsets = new int[blocks];
+        int[] compressedLengths = new int[blocks];
+        int[] lengths = new int[blocks];
+
+        Path temporary = directory.resolve("archive.tmp");
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (OutputStream file = new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16);
+             DataOutputStream out = new DataOutputStream(file)) {
+            ByteArrayOutputStream raw = new ByteArrayOutputStream();
+            DataOutputStream block = new DataOutputStream(raw);
+            byte[] compressed = new byte[1 << 16];
+            for (int b = 0; b < blocks; b++) {
+                raw.reset();
+                List<Order> blockOrders = orders.subList(b * blockSize, Math.min(orders.size(), (b + 1) * blockSize));
+                for (Order order : blockOrders) {
+                    byte[] json = writer.writeValueAsBytes(order);
+                    block.writeLong(order.getId());
+                    block.writeInt(json.length);
+                    block.write(json);
+                }
+                firstIds[b] = blockOrders.get(0).getId();
+                offsets[b] = out.size();
+                lengths[b] = raw.size();
+
+                deflater.reset();
+                deflater.setInput(raw.toByteArray());
+                deflater.finish();
+                while (!deflater.finished()) {
+                    out.write(compressed, 0, deflater.deflate(compressed));
+                }
+                compressedLengths[b] = out.size() - offsets[b];
+            }
+
+            int indexOffset = out.size();
+            for (int b = 0; b < blocks; b++) {
+                out.writeLong(firstIds[b]);
+                out.writeLong(offsets[b]);
+                out.writeInt(compressedLengths[b]);
+                out.writeInt(lengths[b]);
+            }
+            out.writeLong(indexOffset);
+            out.writeInt(blocks);
+            out.writeInt(orders.size());
+            out.writeLong(orders.get(0).getId());
+            out.writeLong(orders.get(orders.size() - 1).getId());
+            out.writeInt(MAGIC);
+        } finally {
+            deflater.end();
+        }
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Path target = path(directory, index);
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+        // The rename is only durable once the directory is; the rows are deleted right after this returns
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+        return open(target, index);
+    }
+
+    /**
+     * Maps an existing segment file and reads its index.
+     */
+    static ArchiveSegment open(Path file, int index) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        int footer = buffer.capacity() - FOOTER_SIZE;
+        if (footer < 0 || buffer.getInt(footer + 32) != MAGIC) {
+            throw new IOException("Not a complete archive segment: " + file);
+        }
+        int indexOffset = (int) buffer.getLong(footer);
+        int blocks = buffer.getInt(footer + 8);
+        long[] firstIds = new long[blocks];
+        int[] offsets = new int[blocks];
+        int[] compressedLengths = new int[blocks];
+        int[] lengths = new int[blocks];
+        for (int b = 0; b < blocks; b++) {
+            int entry = indexOffset + b * INDEX_ENTRY_SIZE;
+            firstIds[b] = buffer.getLong(entry);
+            offsets[b] = (int) buffer.getLong(entry + 8);
+            compressedLengths[b] = buffer.getInt(entry + 16);
+            lengths[b] = buffer.getInt(entry + 20);
+        }
+        return new ArchiveSegment(index, buffer, firstIds, offsets, compressedLengths, lengths,
+                buffer.getInt(footer + 12), buffer.getLong(footer + 16), buffer.getLong(footer + 24));
+    }
+
+    int index() {
+        return index;
+    }
+
+    int orderCount() {
+        return orderCount;
+    }
+
+    /**
+     * @return The archived order, or null if it is not in this segment.
+     */
+    Order find(long id, ObjectReader reader) throws IOException {
+        if (id < minId || id > maxId) {
+            return null;
+        }
+        // Last block starting at or before the ID
+        int block = Arrays.binarySearch(firstIds, id);
+        if (block < 0) {
+            block = -block - 2;
+        }
+        ByteBuffer raw = ByteBuffer.wrap(inflate(block));
+        while (raw.hasRemaining()) {
+            long orderId = raw.getLong();
+            int length = raw.getInt();
+            if (orderId == id) {
+                return reader.readValue(raw.array(), raw.position(), length);
+            }
+            if (orderId > id) {
+                return null;
+            }
+            raw.position(raw.position() + length);
+        }
+        return null;
+    }
+
+    private byte[] inflate(int block) throws IOException {
+        byte[] raw = new byte[lengths[block]];
+        Inflater inflater = new Inflater();
+        try {
+            // Absolute slice: the shared buffer's position is never moved, so lookups can run concurrently
+            inflater.setInput(buffer.slice(offsets[block], compressedLengths[block]));
+            int read = 0;
+            while (read < raw.length && !inflater.finished()) {
+                int inflated = inflater.inflate(raw, read, raw.length - read);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Truncated block " + block + " in archive segment " + index);
+                }
+                read += inflated;
+            }
+        } catch (DataFormatException ex) {
+            throw new IOException("Corrupt block " + block + " in archive segment " + index, ex);
+        } finally {
+            inflater.end();
+        }
+        return raw;
+    }
+}
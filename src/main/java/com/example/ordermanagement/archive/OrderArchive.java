@@ -0,0 +1,297 @@
+package com.example.ordermanagement.archive;
+
+import com.example.ordermanagement.cache.OrderCache;
+import com.example.ordermanagement.entity.Order;
+import com.example.ordermanagement.event.OrderChangedEvent;
+import com.example.ordermanagement.repository.OrderJdbcWriter;
+import com.example.ordermanagement.shard.ShardRouter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Moves old orders out of the order table into compressed, immutable {@link ArchiveSegment} files on local disk,
+ * so the table only holds recent orders. Switched on with orders.archive.enabled=true.
+ * <p>
+ * Every orders.archive.interval, the orders dated before today minus orders.archive.age are read shard by shard in
+ * ID order, orders.archive.segment-size at a time. The unchanged rows of each batch are deleted, and exactly those
+ * orders are written to a new segment, which is durable and opened for lookups before the deletes commit, so an
+ * order is always found in one place or the other. Rows changed after they were read are neither deleted nor
+ * archived. Each deleted row is evicted from the {@link OrderCache} and announced as
+ * {@link OrderChangedEvent.Type#ARCHIVED}, so the journal and statistics drop it like a delete.
+ * <p>
+ * Archived orders are read-only: {@link #findById} serves them to lookups that miss the table, newest segment first.
+ * Lists, search, statistics and reports only cover the table.
+ */
+@Component
+@ConditionalOnProperty(name = "orders.archive.enabled", havingValue = "true")
+public class OrderArchive implements SmartLifecycle, MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderArchive.class);
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("archive-(\\d{10})\\.seg");
+
+    private static final String ARCHIVABLE_SQL = "select id, customer_name, order_date, shipping_address, total, version"
+            + " from \"order\" where order_date < ? and id > ? order by id limit ?";
+
+    private static final RowMapper<Order> ORDER_ROW_MAPPER = (resultSet, rowNum) -> {
+        Date orderDate = resultSet.getDate("order_date");
+        Order order = new Order(resultSet.getString("customer_name"), orderDate == null ? null : orderDate.toLocalDate(),
+                resultSet.getString("shipping_address"), resultSet.getObject("total", Double.class));
+        order.setId(resultSet.getLong("id"));
+        order.setVersion(resultSet.getObject("version", Long.class));
+        return order;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final OrderJdbcWriter jdbcWriter;
+    private final ShardRouter shardRouter;
+    private final OrderCache orderCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectReader orderReader;
+    private final ObjectWriter orderWriter;
+    private final Path directory;
+    private final Duration age;
+    private final Duration interval;
+    private final int segmentSize;
+    private final int blockSize;
+
+    // Oldest first; replaced as a whole when a segment is added, so lookups never see it change
+    private volatile List<ArchiveSegment> segments = List.of();
+    private ScheduledExecutorService scheduler;
+    private volatile boolean running;
+
+    private final LongAdder archived = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+
+    @Autowired
+    public OrderArchive(JdbcTemplate jdbcTemplate,
+                        OrderJdbcWriter jdbcWriter,
+                        ShardRouter shardRouter,
+                        OrderCache orderCache,
+                        ApplicationEventPublisher eventPublisher,
+                        ObjectMapper objectMapper,
+                        @Value("${orders.archive.directory:data/archive}") Path directory,
+                        @Value("${orders.archive.age:365d}") Duration age,
+                        @Value("${orders.archive.interval:1h}") Duration interval,
+                        @Value("${orders.archive.segment-size:100000}") int segmentSize,
+                        @Value("${orders.archive.block-size:64}") int blockSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jdbcWriter = jdbcWriter;
+        this.shardRouter = shardRouter;
+        this.orderCache = orderCache;
+        this.eventPublisher = eventPublisher;
+        this.orderReader = objectMapper.readerFor(Order.class);
+        this.orderWriter = objectMapper.writerFor(Order.class);
+        this.directory = directory;
+        this.age = age;
+        this.interval = interval;
+        this.segmentSize = Math.max(1, segmentSize);
+        this.blockSize = Math.max(1, blockSize);
+    }
+
+    /**
+     * Looks an order up in the archive.
+     *
+     * @param id The ID of the order.
+     * @return The archived order from the newest segment holding it, or empty if it was never archived.
+     */
+    public Optional<Order> findById(Long id) {
+        List<ArchiveSegment> current = segments;
+        try {
+            for (int i = current.size() - 1; i >= 0; i--) {
+                Order order = current.get(i).find(id, orderReader);
+                if (order != null) {
+                    hits.increment();
+                    return Optional.of(order);
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not read order " + id + " from the archive", ex);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Moves every order dated before the cutoff from the table to new segments.
+     *
+     * @return The number of orders archived.
+     */
+    public synchronized int archive() throws IOException {
+        long started = System.nanoTime();
+        LocalDate cutoff = LocalDate.now().minusDays(age.toDays());
+        int count = 0;
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            long afterId = 0;
+            while (true) {
+                long from = afterId;
+                List<Order> batch = shardRouter.onShard(shard, () -> jdbcTemplate.query(ARCHIVABLE_SQL, ORDER_ROW_MAPPER,
+                        Date.valueOf(cutoff), from, segmentSize));
+                if (batch.isEmpty()) {
+                    break;
+                }
+                List<Order> deleted = moveToSegment(batch);
+                for (Order order : deleted) {
+                    orderCache.evict(order.getId());
+                    eventPublisher.publishEvent(OrderChangedEvent.archived(order));
+                }
+                count += deleted.size();
+                if (batch.size() < segmentSize) {
+                    break;
+                }
+                afterId = batch.get(batch.size() - 1).getId();
+            }
+        }
+        archived.add(count);
+        if (count > 0) {
+            log.info("Archived {} orders dated before {} in {} ms", count, cutoff,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        }
+        return count;
+    }
+
+    /**
+     * Deletes the unchanged rows of the batch and writes exactly those orders to a new segment, which is durable
+     * and open for lookups before the deletes commit. Rows changed since they were read are neither deleted nor
+     * archived, so a later delete of such an order cannot bring back an old copy from the archive.
+     */
+    private List<Order> moveToSegment(List<Order> batch) throws IOException {
+        int index = nextIndex();
+        try {
+            return jdbcWriter.deleteAllUnchanged(batch, deleted -> {
+                if (deleted.isEmpty()) {
+                    return;
+                }
+                try {
+                    addSegment(ArchiveSegment.write(directory, index, deleted, blockSize, orderWriter));
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        } catch (RuntimeException ex) {
+            // The deletes rolled back, so the rows are still the only copy; drop the segment if it was written
+            removeSegment(index);
+            throw ex;
+        }
+    }
+
+    private void removeSegment(int index) throws IOException {
+        List<ArchiveSegment> next = new ArrayList<>(segments);
+        if (next.removeIf(segment -> segment.index() == index)) {
+            segments = List.copyOf(next);
+            Files.deleteIfExists(ArchiveSegment.path(directory, index));
+        }
+    }
+
+    private void addSegment(ArchiveSegment segment) {
+        List<ArchiveSegment> next = new ArrayList<>(segments);
+        next.add(segment);
+        segments = List.copyOf(next);
+    }
+
+    private int nextIndex() {
+        List<ArchiveSegment> current = segments;
+        return current.isEmpty() ? 1 : current.get(current.size() - 1).index() + 1;
+    }
+
+    @Override
+    public void start() {
+        try {
+            Files.createDirectories(directory);
+            Files.deleteIfExists(directory.resolve("archive.tmp"));
+            List<ArchiveSegment> opened = new ArrayList<>();
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.sorted().toList()) {
+                    Matcher matcher = SEGMENT_NAME.matcher(file.getFileName().toString());
+                    if (matcher.matches()) {
+                        opened.add(ArchiveSegment.open(file, Integer.parseInt(matcher.group(1))));
+                    }
+                }
+            }
+            segments = List.copyOf(opened);
+            log.info("Opened {} archive segments with {} orders", opened.size(),
+                    opened.stream().mapToLong(ArchiveSegment::orderCount).sum());
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not open the order archive in " + directory, ex);
+        }
+
+        scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+            Thread thread = new Thread(task, "order-archive");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = interval.toMillis();
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                archive();
+            } catch (Exception ex) {
+                log.warn("Archiving orders failed; the next run will retry", ex);
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("orders.archive.segments", this, archive -> archive.segments.size())
+                .description("Archive segment files")
+                .register(registry);
+        Gauge.builder("orders.archive.orders", this,
+                        archive -> archive.segments.stream().mapToLong(ArchiveSegment::orderCount).sum())
+                .description("Orders held in archive segments")
+                .register(registry);
+        FunctionCounter.builder("orders.archive.archived", archived, LongAdder::sum)
+                .description("Orders moved from the order table to the archive")
+                .register(registry);
+        FunctionCounter.builder("orders.archive.hits", hits, LongAdder::sum)
+                .description("Order lookups served from the archive")
+                .register(registry);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.ordermanagement.cache;
+
+import com.example.ordermanagement.dto.CacheStatsResponse;
+import com.example.ordermanagement.entity.Order;
+import com.example.ordermanagement.shard.ShardedOrderRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Bounded in-process cache of orders by ID, sitting in front of {@link ShardedOrderRepository#findById}.
+ * Entries are evicted by size and by age. A hit is served from memory without touching the database,
+ * so no transaction or persistence context is opened for it.
+ * <p>
+ * Writers must call {@link #put} or {@link #evict} after their change is committed. A write to a key
+ * waits for any load of that key already in flight, so a reader cannot put back a stale row afterwards.
+ * The same counters are published as "cache.*" meters tagged cache=orders.
+ */
+@Component
+public class OrderCache implements MeterBinder {
+
+    private final ShardedOrderRepository orderRepository;
+    private final Cache<Long, Order> cache;
+
+    @Autowired
+    public OrderCache(ShardedOrderRepository orderRepository,
+                      @Value("${orders.cache.maximum-size:10000}") long maximumSize,
+                      @Value("${orders.cache.time-to-live:10m}") Duration timeToLive) {
+        this.orderRepository = orderRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the cached order, loading it from the repository on a miss. Missing orders are not cached.
+     *
+     * @param id The ID of the order.
+     * @return The order, or empty if it does not exist.
+     */
+    public Optional<Order> findById(Long id) {
+        return Optional.ofNullable(cache.get(id, key -> orderRepository.findById(key).orElse(null)));
+    }
+
+    /**
+     * Returns the cached orders among the given IDs and loads all the others with one repository call.
+     * IDs that do not exist are absent from the result and are not cached.
+     *
+     * @param ids The IDs of the orders.
+     * @return The orders found, by ID.
+     */
+    public Map<Long, Order> findAllById(Collection<Long> ids) {
+        return cache.getAll(ids, missing -> orderRepository.findAllById(List.copyOf(missing)).stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity())));
+    }
+
+    /**
+     * Stores the committed state of an order, replacing any previous entry.
+     */
+    public void put(Long id, Order order) {
+        cache.put(id, order);
+    }
+
+    /**
+     * Drops the entry for an order, e.g. after it was deleted.
+     */
+    public void evict(Long id) {
+        cache.invalidate(id);
+    }
+
+    /**
+     * Drops every entry.
+     */
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "orders");
+    }
+
+    /**
+     * @return Hit, miss and eviction counters since startup, plus the current number of entries.
+     */
+    public CacheStatsResponse stats() {
+        CacheStats stats = cache.stats();
+        return new CacheStatsResponse(stats.hitCount(), stats.missCount(), stats.evictionCount(), cache.estimatedSize());
+    }
+}
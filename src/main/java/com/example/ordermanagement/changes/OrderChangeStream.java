@@ -0,0 +1,305 @@
+package com.example.ordermanagement.changes;
+
+import com.example.ordermanagement.dto.OrderChange;
+import com.example.ordermanagement.entity.Order;
+import com.example.ordermanagement.event.OrderChangedEvent;
+import com.example.ordermanagement.exception.SequenceExpiredException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Broadcasts committed order changes to Server-Sent Events subscribers, so clients can follow changes instead of
+ * polling GET /orders.
+ * <p>
+ * Every {@link OrderChangedEvent} gets the next sequence number and is written to a fixed-size ring that doubles
+ * as the replay window. Publishing only writes to the ring and wakes subscribers; it never waits for a client.
+ * Each subscriber keeps its own position and is drained by one of a fixed number of sender threads, one batch at a
+ * time so a busy subscriber does not hold a thread the others are waiting for. A subscriber whose next change has
+ * already been overwritten in the ring is too slow: it gets an "overflow" event and is disconnected, and has to
+ * reload before subscribing again. If the ring laps a subscriber while a send to it is still blocked, it is
+ * disconnected right away: its sender thread is interrupted and its request completed, so one stuck client holds
+ * neither a sender thread nor its connection until its write times out. Sequence numbers start from 1 again when
+ * the application restarts.
+ */
+@Component
+public class OrderChangeStream implements MeterBinder, DisposableBean {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderChangeStream.class);
+
+    // Most changes sent to one subscriber before the sender re-reads the ring
+    private static final int SEND_BATCH_SIZE = 256;
+
+    private final OrderChange[] ring;
+    private final long emitterTimeoutMillis;
+    private final ExecutorService sender;
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+    // Written under the lock on this, read without it by senders checking for new changes
+    private volatile long lastSequence;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder overflows = new LongAdder();
+
+    @Autowired
+    public OrderChangeStream(@Value("${orders.changes.replay-capacity:10000}") int replayCapacity,
+                             @Value("${orders.changes.subscriber-timeout:30m}") Duration subscriberTimeout,
+                             @Value("${orders.changes.sender-threads:4}") int senderThreads) {
+        this.ring = new OrderChange[Math.max(1, replayCapacity)];
+        this.emitterTimeoutMillis = subscriberTimeout.toMillis();
+        AtomicInteger threads = new AtomicInteger();
+        this.sender = Executors.newFixedThreadPool(Math.max(1, senderThreads), runnable -> {
+            Thread thread = new Thread(runnable, "order-changes-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener
+    public void onOrderChanged(OrderChangedEvent event) {
+        // Copy, so later changes to the same instance (e.g. in the order cache) do not alter the history
+        Order order = event.getCurrent() == null ? null : new Order(event.getCurrent());
+        long sequence;
+        synchronized (this) {
+            sequence = lastSequence + 1;
+            ring[(int) (sequence % ring.length)] = new OrderChange(sequence, event.getType(), event.getOrderId(), order, Instant.now());
+            lastSequence = sequence;
+        }
+        published.increment();
+        for (Subscription subscription : subscriptions) {
+            // The change the blocked send is waiting to follow with has just been overwritten
+            if (subscription.sending && sequence - subscription.cursor > ring.length) {
+                overflows.increment();
+                subscription.abandon();
+            } else {
+                subscription.signal();
+            }
+        }
+    }
+
+    /**
+     * @return Sequence number of the latest change, or 0 if there was none yet.
+     */
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    /**
+     * Reads changes from the replay window.
+     *
+     * @param after    Sequence number of the last change already seen; 0 to start from the first change.
+     * @param maxCount Most changes to return.
+     * @return The changes after the given one, oldest first; empty if there are none yet.
+     * @throws SequenceExpiredException if changes after the given one have already left the replay window,
+     *                                  or the sequence number was never issued (e.g. before a restart).
+     */
+    public synchronized List<OrderChange> changesAfter(long after, int maxCount) {
+        if (after > lastSequence || after < lastSequence - ring.length) {
+            throw new SequenceExpiredException("Changes after sequence " + after + " are no longer available (latest is "
+                    + lastSequence + "); reload the orders and subscribe from the latest sequence");
+        }
+        int count = (int) Math.min(maxCount, lastSequence - after);
+        List<OrderChange> changes = new ArrayList<>(count);
+        for (long sequence = after + 1; sequence <= after + count; sequence++) {
+            changes.add(ring[(int) (sequence % ring.length)]);
+        }
+        return changes;
+    }
+
+    /**
+     * Opens a Server-Sent Events stream of the changes after the given sequence number: first those still in the
+     * replay window, then new ones as they are published. Each event has the sequence number as ID, the change
+     * type as name and an {@link OrderChange} as data.
+     *
+     * @param after Sequence number of the last change the client has seen, or null for new changes only.
+     * @throws SequenceExpiredException if the changes after {@code after} are no longer in the replay window.
+     */
+    public SseEmitter subscribe(Long after) {
+        long start = after == null ? lastSequence : after;
+        // Fail before the response is committed, so the client gets a 410 instead of an empty stream
+        changesAfter(start, 0);
+
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        // Null outside a servlet request, e.g. in tests
+        HttpServletRequest request = RequestContextHolder.getRequestAttributes()
+                instanceof ServletRequestAttributes attributes ? attributes.getRequest() : null;
+        Subscription subscription = new Subscription(emitter, request, start);
+        emitter.onCompletion(subscription::ended);
+        emitter.onTimeout(subscription::ended);
+        emitter.onError(error -> subscription.ended());
+        subscriptions.add(subscription);
+        subscription.signal();
+        return emitter;
+    }
+
+    @Override
+    public void destroy() {
+        for (Subscription subscription : subscriptions) {
+            subscription.emitter.complete();
+            subscription.close();
+        }
+        sender.shutdownNow();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("orders.changes.published", published, LongAdder::sum)
+                .description("Order changes published to the change stream")
+                .register(registry);
+        FunctionCounter.builder("orders.changes.overflows", overflows, LongAdder::sum)
+                .description("Change stream subscribers disconnected for falling behind the replay window")
+                .register(registry);
+        Gauge.builder("orders.changes.subscribers", subscriptions, Set::size)
+                .description("Open change stream subscriptions")
+                .register(registry);
+    }
+
+    private final class Subscription {
+        final SseEmitter emitter;
+        final HttpServletRequest request;
+        // Written only by the sender currently draining this subscription; read by publishers to detect a lap
+        volatile long cursor;
+        // True while a send to the client is in progress
+        volatile boolean sending;
+        // True while a drain is scheduled or running, so at most one sender works on a subscription
+        final AtomicBoolean draining = new AtomicBoolean();
+        volatile boolean closed;
+        // Set when a lap interrupts the send
+        volatile boolean abandoned;
+        // Set once the async request has completed, timed out or failed
+        volatile boolean ended;
+        // The scheduled or running drain, to interrupt a send the ring has lapped
+        volatile Future<?> drainTask;
+
+        Subscription(SseEmitter emitter, HttpServletRequest request, long cursor) {
+            this.emitter = emitter;
+            this.request = request;
+            this.cursor = cursor;
+        }
+
+        void signal() {
+            if (!closed && draining.compareAndSet(false, true)) {
+                try {
+                    drainTask = sender.submit(this::drain);
+                } catch (RejectedExecutionException ex) {
+                    // Shutting down
+                    close();
+                }
+            }
+        }
+
+        // Sends one batch, then hands the thread back and queues the next batch behind the other subscribers
+        void drain() {
+            try {
+                for (OrderChange change : changesAfter(cursor, SEND_BATCH_SIZE)) {
+                    if (closed) {
+                        break;
+                    }
+                    sending = true;
+                    try {
+                        emitter.send(SseEmitter.event()
+                                .id(Long.toString(change.getSequence()))
+                                .name(change.getType().name().toLowerCase(Locale.ROOT))
+                                .data(change));
+                    } finally {
+                        sending = false;
+                    }
+                    cursor = change.getSequence();
+                }
+            } catch (SequenceExpiredException ex) {
+                overflows.increment();
+                disconnect(ex.getMessage());
+                return;
+            } catch (IOException | IllegalStateException ex) {
+                // Client went away, the emitter already completed, or the send was interrupted by abandon()
+                log.debug("Closing change stream subscription: {}", ex.getMessage());
+                emitter.completeWithError(ex);
+                if (abandoned) {
+                    endRequest();
+                }
+                close();
+                return;
+            }
+            if (closed) {
+                // Abandoned while sending; the client has already lost changes, so end the stream without more writes
+                emitter.complete();
+                return;
+            }
+            draining.set(false);
+            // Also covers a change published while draining was still set
+            if (lastSequence > cursor) {
+                signal();
+            }
+        }
+
+        // Lapped by the ring while a send is blocked: stop sending to it and free its sender thread
+        void abandon() {
+            abandoned = true;
+            close();
+            Future<?> task = drainTask;
+            if (task != null) {
+                task.cancel(true);
+            }
+        }
+
+        void disconnect(String reason) {
+            try {
+                emitter.send(SseEmitter.event().name("overflow").data(reason));
+                emitter.complete();
+            } catch (IOException | IllegalStateException ex) {
+                log.debug("Could not notify a slow change stream subscriber: {}", ex.getMessage());
+            }
+            close();
+        }
+
+        // The emitter ignores completion after a failed send and waits for the container to report the broken
+        // connection, but an interrupted send leaves the connection open, so the async request is completed here
+        void endRequest() {
+            try {
+                if (request != null && !ended && request.isAsyncStarted()) {
+                    request.getAsyncContext().complete();
+                }
+            } catch (IllegalStateException ex) {
+                // Completed or timed out meanwhile
+            }
+        }
+
+        void ended() {
+            ended = true;
+            close();
+        }
+
+        void close() {
+            closed = true;
+            subscriptions.remove(this);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.ordermanagement.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * CBOR (RFC 8949) as a binary alternative to JSON, selected through the Accept and Content-Type headers.
+ * Single orders use application/cbor; streamed lists use a CBOR sequence (RFC 8742), application/cbor-seq.
+ */
+@Configuration
+public class CborConfig implements WebMvcConfigurer {
+
+    public static final String APPLICATION_CBOR_SEQ_VALUE = "application/cbor-seq";
+    public static final MediaType APPLICATION_CBOR_SEQ = MediaType.parseMediaType(APPLICATION_CBOR_SEQ_VALUE);
+
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public CborConfig(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Derives the CBOR mapper from the application's JSON mapper, so both formats share modules and settings.
+     * Dates are written as [year, month, day] arrays, which are smaller than ISO strings.
+     *
+     * @param jsonMapper The application's JSON ObjectMapper.
+     * @return A new ObjectMapper writing and reading CBOR.
+     */
+    public static ObjectMapper cborMapper(ObjectMapper jsonMapper) {
+        return jsonMapper.copyWith(new CBORFactory())
+                .enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    // Replace Spring's default CBOR converter, which is built without the application's Jackson settings
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        MappingJackson2CborHttpMessageConverter cborConverter =
+                new MappingJackson2CborHttpMessageConverter(cborMapper(objectMapper));
+        for (int i = 0; i < converters.size(); i++) {
+            if (converters.get(i) instanceof MappingJackson2CborHttpMessageConverter) {
+                converters.set(i, cborConverter);
+                return;
+            }
+        }
+        converters.add(cborConverter);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.ordermanagement.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+/**
+ * Puts a bulkhead sized to the JDBC connection pool in front of the order endpoints.
+ * Needed when requests run on virtual threads: there is no longer a worker pool that caps concurrency,
+ * so without it every request would pile up waiting for one of the pool's few connections.
+ */
+@Configuration
+@ConditionalOnProperty(name = "orders.virtual-threads.enabled", havingValue = "true")
+public class DatabaseBulkheadConfig implements WebMvcConfigurer {
+
+    private final int maxConcurrentRequests;
+    private final Duration acquireTimeout;
+
+    public DatabaseBulkheadConfig(@Value("${spring.datasource.hikari.maximum-pool-size:10}") int maxConcurrentRequests,
+                                  @Value("${orders.db-bulkhead.acquire-timeout:2s}") Duration acquireTimeout) {
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.acquireTimeout = acquireTimeout;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new DatabaseBulkheadInterceptor(maxConcurrentRequests, acquireTimeout))
+                .addPathPatterns("/orders/**")
+                // Change streams stay open for up to orders.changes.subscriber-timeout and are fed from memory
+                .excludePathPatterns("/orders/changes", "/orders/changes/**");
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.ordermanagement.config;
+
+import com.example.ordermanagement.dto.*;
+import com.example.ordermanagement.entity.Order;
+import com.example.ordermanagement.entity.OrderIdGenerator;
+import com.example.ordermanagement.exception.CustomErrorResponse;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Reflection and resource hints for a GraalVM native image (mvn -Pnative native:compile), covering what the AOT
+ * processing cannot infer from the bean definitions.
+ * <p>
+ * Spring already registers the JPA entity fields and the request and response types it can see in controller
+ * signatures. Not covered are the bodies of methods returning {@code ResponseEntity<?>}, objects written by hand
+ * (Server-Sent Events data, the write-behind log and journal), the ID generator Hibernate instantiates by name, and
+ * the schema script loaded from the classpath.
+ */
+public class OrderRuntimeHints implements RuntimeHintsRegistrar {
+
+    private final BindingReflectionHintsRegistrar bindingHints = new BindingReflectionHintsRegistrar();
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        // Serialized and deserialized with Jackson
+        bindingHints.registerReflectionHints(hints.reflection(),
+                Order.class,
+                CustomErrorResponse.class,
+                OrderChange.class,
+                OrderBatchResponse.class,
+                OrderPatchResponse.class,
+                BulkOrderResponse.class,
+                BulkItemError.class,
+                CacheStatsResponse.class,
+                OrderStatsResponse.class,
+                OrderReportResponse.class,
+                DailyRevenue.class,
+                CustomerRevenue.class);
+
+        // Named in @GenericGenerator on Order and created by Hibernate through its constructor
+        hints.reflection().registerType(OrderIdGenerator.class, MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS,
+                MemberCategory.INVOKE_PUBLIC_METHODS);
+
+        // Run by ShardingConfig on every shard, and by spring.sql.init in the fast-start profile
+        hints.resources().registerPattern("schema-shard.sql");
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.ordermanagement.config;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Logs a random sample of the SQL statements Hibernate prepares, instead of every one of them.
+ * Logging is controlled at runtime by the level of the "com.example.ordermanagement.sql" logger
+ * (e.g. through the actuator loggers endpoint). While that logger is not at DEBUG, the cost is one level check.
+ */
+public class SampledSqlStatementInspector implements StatementInspector {
+
+    static final String LOGGER_NAME = "com.example.ordermanagement.sql";
+
+    private static final Logger log = LoggerFactory.getLogger(LOGGER_NAME);
+
+    private final int sampleEvery;
+
+    /**
+     * @param sampleEvery Log one statement out of this many, on average; 1 logs every statement.
+     */
+    public SampledSqlStatementInspector(int sampleEvery) {
+        this.sampleEvery = Math.max(1, sampleEvery);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        if (log.isDebugEnabled() && ThreadLocalRandom.current().nextInt(sampleEvery) == 0) {
+            log.debug(sql);
+        }
+        return sql;
+    }
+}
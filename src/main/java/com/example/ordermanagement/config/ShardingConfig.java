@@ -0,0 +1,48 @@
+package com.example.ordermanagement.config;
+
+import com.example.ordermanagement.shard.ShardRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Spreads orders over several databases, one connection pool per entry of orders.sharding.urls.
+ * Hibernate only manages the schema of the first shard, so every shard gets schema-shard.sql before use.
+ */
+@Configuration
+@ConditionalOnProperty(name = "orders.sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    @Bean
+    @Primary
+    public ShardRoutingDataSource dataSource(@Value("${orders.sharding.urls}") List<String> urls,
+                                             @Value("${spring.datasource.username:sa}") String username,
+                                             @Value("${spring.datasource.password:}") String password,
+                                             @Value("${orders.sharding.pool-size:10}") int poolSize) {
+        ResourceDatabasePopulator schema = new ResourceDatabasePopulator(new ClassPathResource("schema-shard.sql"));
+        List<DataSource> shards = new ArrayList<>(urls.size());
+        for (int shard = 0; shard < urls.size(); shard++) {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(urls.get(shard))
+                    .username(username)
+                    .password(password)
+                    .build();
+            dataSource.setPoolName("order-shard-" + shard);
+            dataSource.setMaximumPoolSize(poolSize);
+            schema.execute(dataSource);
+            shards.add(dataSource);
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+}
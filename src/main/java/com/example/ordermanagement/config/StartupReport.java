@@ -0,0 +1,66 @@
+package com.example.ordermanagement.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aot.AotDetector;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.NativeDetector;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Logs how long startup took and how much memory the process holds once it is ready, so the startup modes
+ * (plain JVM, fast-start profile, AOT, CDS, native image) can be compared from their logs.
+ * <p>
+ * With orders.startup.exit-on-ready=true the application stops right after reporting. That makes a training run
+ * for the CDS archive: the JVM records every class loaded during startup and writes the archive at exit.
+ */
+@Component
+public class StartupReport implements ApplicationListener<ApplicationReadyEvent> {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupReport.class);
+
+    private final boolean exitOnReady;
+
+    @Autowired
+    public StartupReport(@Value("${orders.startup.exit-on-ready:false}") boolean exitOnReady) {
+        this.exitOnReady = exitOnReady;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        String mode = NativeDetector.inNativeImage() ? "native image" : AotDetector.useGeneratedArtifacts() ? "JVM with AOT" : "JVM";
+        boolean lazy = event.getApplicationContext().getEnvironment()
+                .getProperty("spring.main.lazy-initialization", Boolean.class, false);
+        log.info("Ready in {} ms ({}{}), resident memory {}", event.getTimeTaken().toMillis(), mode,
+                lazy ? ", lazy initialization" : "", residentMemory());
+
+        if (exitOnReady) {
+            System.exit(SpringApplication.exit(event.getApplicationContext()));
+        }
+    }
+
+    // VmRSS from /proc (Linux only); the JVM has no portable way to read the resident set size
+    private static String residentMemory() {
+        try {
+            List<String> status = Files.readAllLines(Path.of("/proc/self/status"));
+            for (String line : status) {
+                if (line.startsWith("VmRSS:")) {
+                    long kilobytes = Long.parseLong(line.substring("VmRSS:".length()).replace("kB", "").trim());
+                    return (kilobytes / 1024) + " MB";
+                }
+            }
+        } catch (IOException | NumberFormatException ex) {
+            // Not Linux, or an unexpected format
+        }
+        return "unknown";
+    }
+}
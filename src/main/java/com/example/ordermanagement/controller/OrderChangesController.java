@@ -0,0 +1,27 @@
+package com.example.ordermanagement.controller;
+
+import com.example.ordermanagement.changes.OrderChangeStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/orders/changes")
+public class OrderChangesController {
+
+    private final OrderChangeStream orderChangeStream;
+
+    @Autowired
+    public OrderChangesController(OrderChangeStream orderChangeStream) {
+        this.orderChangeStream = orderChangeStream;
+    }
+
+    // Follow order changes as Server-Sent Events. A reconnecting client resumes after its Last-Event-ID; otherwise
+    // ?after= picks the starting sequence, and without either only new changes are sent.
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+                                    @RequestParam(required = false) Long after) {
+        return orderChangeStream.subscribe(lastEventId != null ? lastEventId : after);
+    }
+}
@@ -1,22 +1,58 @@
 package com.example.ordermanagement.controller;
 
+import com.example.ordermanagement.archive.OrderArchive;
+import com.example.ordermanagement.cache.OrderCache;
+import com.example.ordermanagement.config.CborConfig;
+import com.example.ordermanagement.dto.BulkOrderResponse;
+import com.example.ordermanagement.dto.CacheStatsResponse;
+import com.example.ordermanagement.dto.OrderBatchResponse;
+import com.example.ordermanagement.dto.OrderPatchResponse;
 import com.example.ordermanagement.entity.Order;
+import com.example.ordermanagement.event.OrderChangedEvent;
+import com.example.ordermanagement.exception.BatchTooLargeException;
 import com.example.ordermanagement.exception.CustomErrorResponse;
 import com.example.ordermanagement.exception.OrderNotFoundException;
-import com.example.ordermanagement.repository.OrderRepository;
-import org.springframework.validation.FieldError;
+import com.example.ordermanagement.exception.PreconditionFailedException;
+import com.example.ordermanagement.exception.ServiceUnavailableException;
+import com.example.ordermanagement.idempotency.IdempotencyStore;
+import com.example.ordermanagement.repository.OrderSpecifications;
+import com.example.ordermanagement.service.OrderBulkService;
+import com.example.ordermanagement.shard.ShardedOrderRepository;
+import com.example.ordermanagement.validation.OrderValidator;
+import com.example.ordermanagement.writebehind.OrderWriteBehindBuffer;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @RestController
@@ -24,56 +60,242 @@ import java.util.stream.Collectors;
 @Validated
 public class OrderController {
 
-    private final OrderRepository orderRepository;
+    // Response header carrying the continuation token for the next page of GET /orders
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    static final int DEFAULT_PAGE_SIZE = 100;
+    static final int MAX_PAGE_SIZE = 1000;
+    static final int MAX_BATCH_SIZE = 1000;
+
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
+    private final ShardedOrderRepository orderRepository;
+    private final OrderCache orderCache;
+    private final OrderBulkService orderBulkService;
+    private final IdempotencyStore idempotencyStore;
+    private final ApplicationEventPublisher eventPublisher;
+    // Null unless orders.write-behind.enabled=true
+    private final OrderWriteBehindBuffer writeBehindBuffer;
+    // Null unless orders.archive.enabled=true
+    private final OrderArchive orderArchive;
+    private final ObjectReader orderReader;
+    private final ObjectWriter orderWriter;
+    private final ObjectReader cborOrderReader;
+    private final ObjectWriter cborOrderWriter;
 
     @Autowired
-    public OrderController(OrderRepository orderRepository) {
+    public OrderController(ShardedOrderRepository orderRepository, OrderCache orderCache, OrderBulkService orderBulkService,
+                           IdempotencyStore idempotencyStore, ApplicationEventPublisher eventPublisher, ObjectMapper objectMapper,
+                           Optional<OrderWriteBehindBuffer> writeBehindBuffer, Optional<OrderArchive> orderArchive) {
         this.orderRepository = orderRepository;
+        this.orderCache = orderCache;
+        this.orderBulkService = orderBulkService;
+        this.idempotencyStore = idempotencyStore;
+        this.eventPublisher = eventPublisher;
+        this.writeBehindBuffer = writeBehindBuffer.orElse(null);
+        this.orderArchive = orderArchive.orElse(null);
+        this.orderReader = objectMapper.readerFor(Order.class);
+        this.orderWriter = objectMapper.writerFor(Order.class);
+        ObjectMapper cborMapper = CborConfig.cborMapper(objectMapper);
+        this.cborOrderReader = cborMapper.readerFor(Order.class);
+        this.cborOrderWriter = cborMapper.writerFor(Order.class);
     }
 
-    // Create an order
+    // Create an order. With an Idempotency-Key header, retries of the same request get the first response
+    // instead of creating another order.
     @PostMapping
-    public ResponseEntity<?> createOrder(@RequestBody @Valid Order order, BindingResult bindingResult) {
-        List<String> errors = new ArrayList<>();
-
-        // Handle blank/empty fields
-        for (FieldError fieldError : bindingResult.getFieldErrors()) {
-            String errorMessage = fieldError.getField() + ": " + fieldError.getDefaultMessage();
-            errors.add(errorMessage);
+    public ResponseEntity<?> createOrder(@RequestBody Order order,
+                                         @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return createNewOrder(order);
         }
-
-        // Handle the total field
-        if (order.getTotal() == null || order.getTotal() <= 0) {
-            String errorMessage = "total: Total must be a positive number";
-            errors.add(errorMessage);
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            CustomErrorResponse errorResponse = new CustomErrorResponse("Validation Error",
+                    List.of(IDEMPOTENCY_KEY_HEADER + " must be 1 to " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters"));
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
         }
+        return idempotencyStore.execute(idempotencyKey, idempotencyStore.fingerprint(order), () -> createNewOrder(order));
+    }
 
+    private ResponseEntity<?> createNewOrder(Order order) {
+        // Single validation pass with the precompiled validator; nothing is allocated unless it fails
+        List<String> errors = OrderValidator.validate(order);
         if (!errors.isEmpty()) {
             CustomErrorResponse errorResponse = new CustomErrorResponse("Validation Error", errors);
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
         }
 
+        // ID and version are assigned on insert; values sent by the client are ignored
+        order.setId(null);
+        order.setVersion(null);
         order.setOrderDate(LocalDate.now());
+        if (writeBehindBuffer != null) {
+            // Durable locally and queued for the database; the body carries the assigned ID
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(writeBehindBuffer.acceptCreate(order));
+        }
         Order savedOrder = orderRepository.save(order);
+        eventPublisher.publishEvent(OrderChangedEvent.created(savedOrder));
         return ResponseEntity.status(HttpStatus.CREATED).body(savedOrder);
     }
 
-    // Get all orders
+    // Create many orders at once, from a JSON/CBOR array or an NDJSON/CBOR sequence stream
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE, CborConfig.APPLICATION_CBOR_SEQ_VALUE})
+    public ResponseEntity<BulkOrderResponse> createOrdersInBulk(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                                InputStream body) throws IOException {
+        ObjectReader reader = contentType.getSubtype().startsWith("cbor") ? cborOrderReader : orderReader;
+
+        // Items are parsed one at a time (a top-level array is unwrapped), never as one big list
+        BulkOrderResponse result;
+        try (MappingIterator<Order> orders = reader.readValues(body)) {
+            result = orderBulkService.ingest(orders);
+        }
+
+        HttpStatus status;
+        if (result.getErrors().isEmpty()) {
+            status = HttpStatus.CREATED;
+        } else if (result.getCreated() == 0) {
+            status = HttpStatus.BAD_REQUEST;
+        } else {
+            status = HttpStatus.MULTI_STATUS;
+        }
+        return ResponseEntity.status(status).body(result);
+    }
+
+    // Get all orders, one keyset page at a time
     @GetMapping
-    public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+    public ResponseEntity<List<Order>> getAllOrders(@RequestParam(required = false) String cursor,
+                                                    @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        long afterId = OrderCursor.decode(cursor);
+
+        List<Order> orders = orderRepository.findPageAfter(afterId, pageSize);
+
+        // A full page means there may be more rows; hand back a token pointing past the last one
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (orders.size() == pageSize) {
+            response.header(NEXT_CURSOR_HEADER, OrderCursor.encode(orders.get(pageSize - 1).getId()));
+        }
+        return response.body(orders);
+    }
+
+    // Stream all orders as newline-delimited JSON, writing each row as soon as it is fetched
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllOrders() {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(streamOrders(orderWriter, true));
+    }
+
+    // Stream all orders as a CBOR sequence (concatenated CBOR items), writing each row as soon as it is fetched
+    @GetMapping(produces = CborConfig.APPLICATION_CBOR_SEQ_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllOrdersAsCbor() {
+        return ResponseEntity.ok().contentType(CborConfig.APPLICATION_CBOR_SEQ).body(streamOrders(cborOrderWriter, false));
+    }
+
+    private StreamingResponseBody streamOrders(ObjectWriter writer, boolean newlineDelimited) {
+        return outputStream -> {
+            try {
+                orderRepository.forEachOrder(order -> {
+                    try {
+                        outputStream.write(writer.writeValueAsBytes(order));
+                        if (newlineDelimited) {
+                            outputStream.write('\n');
+                        }
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+        };
+    }
+
+    // Search orders by customer, order date range and total range
+    @GetMapping("/search")
+    public Page<Order> searchOrders(@RequestParam(required = false) String customerName,
+                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+                                    @RequestParam(required = false) Double minTotal,
+                                    @RequestParam(required = false) Double maxTotal,
+                                    @PageableDefault(size = 20, sort = "id", direction = Sort.Direction.ASC) Pageable pageable) {
+        return orderRepository.findAll(
+                OrderSpecifications.matching(customerName, fromDate, toDate, minTotal, maxTotal), pageable);
     }
 
-    // Get an order by ID
+    // Get an order by ID, served from the write-behind buffer or the order cache when possible, and from the
+    // archive if it is no longer in the table.
+    // The response carries the version as ETag; a matching If-None-Match gets 304 Not Modified without a body.
     @GetMapping("/{id}")
-    public Order getOrderById(@PathVariable Long id) {
-        return orderRepository.findById(id)
+    public ResponseEntity<Order> getOrderById(@PathVariable Long id) {
+        Optional<Order> pending = writeBehindBuffer != null ? writeBehindBuffer.findPending(id) : Optional.empty();
+        Order order = pending.or(() -> orderCache.findById(id))
+                .or(() -> orderArchive != null ? orderArchive.findById(id) : Optional.empty())
                 .orElseThrow(() -> new OrderNotFoundException("Order not found with id: " + id));
+        return ResponseEntity.ok().eTag(OrderETag.of(order)).body(order);
+    }
+
+    // Get several orders by ID in one call: GET /orders?ids=1,2,3
+    @GetMapping(params = "ids")
+    public OrderBatchResponse getOrdersByIds(@RequestParam List<Long> ids) {
+        return findOrdersByIds(ids);
+    }
+
+    // Same as GET /orders?ids=..., with the IDs as a JSON array in the body for lists too long for a URL
+    @PostMapping("/_mget")
+    public OrderBatchResponse multiGetOrders(@RequestBody List<Long> ids) {
+        return findOrdersByIds(ids);
+    }
+
+    // Resolve pending orders first, then cached ones, then everything else with chunked IN-list queries, and
+    // what is still missing from the archive. Duplicate IDs are answered once; results follow the order of first appearance.
+    private OrderBatchResponse findOrdersByIds(List<Long> ids) {
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        requested.remove(null);
+        if (requested.size() > MAX_BATCH_SIZE) {
+            throw new BatchTooLargeException("At most " + MAX_BATCH_SIZE + " IDs can be requested at once, got " + requested.size());
+        }
+        Map<Long, Order> found = new HashMap<>();
+        if (writeBehindBuffer != null) {
+            for (Long id : requested) {
+                writeBehindBuffer.findPending(id).ifPresent(order -> found.put(id, order));
+            }
+        }
+        List<Long> toLoad = requested.stream().filter(id -> !found.containsKey(id)).toList();
+        found.putAll(orderCache.findAllById(toLoad));
+        if (orderArchive != null) {
+            for (Long id : requested) {
+                if (!found.containsKey(id)) {
+                    orderArchive.findById(id).ifPresent(order -> found.put(id, order));
+                }
+            }
+        }
+
+        List<Order> orders = new ArrayList<>(requested.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : requested) {
+            Order order = found.get(id);
+            if (order != null) {
+                orders.add(order);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new OrderBatchResponse(orders, missing);
+    }
+
+    // Get the order cache counters
+    @GetMapping("/cache/stats")
+    public CacheStatsResponse getCacheStats() {
+        return orderCache.stats();
     }
 
-    // Update an order
+    // Update an order. With If-Match, the update only applies to that version; either way a concurrent
+    // update committed in between makes it fail with 412 instead of being overwritten.
     @PutMapping("/{id}")
-    public ResponseEntity<?> updateOrder(@PathVariable Long id, @RequestBody @Valid Order updatedOrder, BindingResult bindingResult) {
+    public ResponseEntity<?> updateOrder(@PathVariable Long id,
+                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                         @RequestBody @Valid Order updatedOrder, BindingResult bindingResult) {
         if (bindingResult.hasErrors()) {
             List<String> errors = bindingResult.getFieldErrors().stream()
                     .map(fieldError -> fieldError.getField() + ": " + fieldError.getDefaultMessage())
@@ -83,24 +305,176 @@ public class OrderController {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
         }
 
-        return orderRepository.findById(id)
-                .map(order -> {
-                    order.setCustomerName(updatedOrder.getCustomerName());
-                    order.setShippingAddress(updatedOrder.getShippingAddress());
-                    order.setTotal(updatedOrder.getTotal());
-                    Order savedOrder = orderRepository.save(order);
-                    return ResponseEntity.ok(savedOrder);
-                })
+        if (writeBehindBuffer != null) {
+            Order queued = updateOrderWriteBehind(id, ifMatch, updatedOrder);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).eTag(OrderETag.of(queued)).body(queued);
+        }
+
+        // The loaded order is detached, so save() merges it and Hibernate checks its version against the row
+        Order order = orderRepository.findById(id)
+                .orElseThrow(() -> new OrderNotFoundException("Order not found with id: " + id));
+        checkIfMatch(ifMatch, order);
+        Order previous = new Order(order);
+        order.setCustomerName(updatedOrder.getCustomerName());
+        order.setShippingAddress(updatedOrder.getShippingAddress());
+        order.setTotal(updatedOrder.getTotal());
+        Order savedOrder = orderRepository.save(order);
+        orderCache.put(id, savedOrder);
+        eventPublisher.publishEvent(OrderChangedEvent.updated(previous, savedOrder));
+        return ResponseEntity.ok().eTag(OrderETag.of(savedOrder)).body(savedOrder);
+    }
+
+    // Partially update an order: only the fields present in the body change. A single UPDATE writes just those
+    // columns at the version the order had, taken from the order cache, so a cached order is not read from the
+    // database first. If-Match works as for PUT.
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> patchOrder(@PathVariable Long id,
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                        @RequestBody Order patch) {
+        List<String> errors = OrderValidator.validatePatch(patch);
+        if (!errors.isEmpty()) {
+            CustomErrorResponse errorResponse = new CustomErrorResponse("Validation Error", errors);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        }
+
+        if (writeBehindBuffer != null) {
+            Order queued = updateOrderWriteBehind(id, ifMatch, patch);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).eTag(OrderETag.of(queued)).body(queued);
+        }
+
+        Order current = orderCache.findById(id)
+                .orElseThrow(() -> new OrderNotFoundException("Order not found with id: " + id));
+        checkIfMatch(ifMatch, current);
+        long version = current.getVersion() == null ? 0L : current.getVersion();
+        if (orderRepository.patch(id, version, patch) == 0) {
+            // Deleted, or changed since it was cached: the next request starts from the stored state
+            orderCache.evict(id);
+            if (orderRepository.findById(id).isEmpty()) {
+                throw new OrderNotFoundException("Order not found with id: " + id);
+            }
+            throw new PreconditionFailedException("Order " + id + " was modified concurrently, reload it and retry");
+        }
+        Order patchedOrder = patched(current, patch, version);
+        orderCache.put(id, patchedOrder);
+        eventPublisher.publishEvent(OrderChangedEvent.updated(current, patchedOrder));
+        return ResponseEntity.ok().eTag(OrderETag.of(patchedOrder)).body(patchedOrder);
+    }
+
+    // Apply the same partial update to several orders: PATCH /orders?ids=1,2,3. One UPDATE statement (per shard)
+    // covers all of them, each at the version it had in the order cache. If any of them was changed or deleted in
+    // the meantime, none of its shard is updated: with a single database the response is 412, with several the other
+    // shards are committed and the response is 207 listing the patched orders and the conflicting IDs. IDs that do
+    // not exist are listed as missing.
+    @PatchMapping(params = "ids")
+    public ResponseEntity<?> patchOrders(@RequestParam List<Long> ids, @RequestBody Order patch) {
+        List<String> errors = OrderValidator.validatePatch(patch);
+        if (!errors.isEmpty()) {
+            CustomErrorResponse errorResponse = new CustomErrorResponse("Validation Error", errors);
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+        }
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        requested.remove(null);
+        if (requested.size() > MAX_BATCH_SIZE) {
+            throw new BatchTooLargeException("At most " + MAX_BATCH_SIZE + " orders can be patched at once, got " + requested.size());
+        }
+
+        List<Order> orders = new ArrayList<>(requested.size());
+        List<Long> missing = new ArrayList<>();
+        if (writeBehindBuffer != null) {
+            for (Long id : requested) {
+                try {
+                    orders.add(updateOrderWriteBehind(id, null, patch));
+                } catch (OrderNotFoundException ex) {
+                    missing.add(id);
+                }
+            }
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(new OrderPatchResponse(orders, missing, List.of()));
+        }
+
+        Map<Long, Order> current = orderCache.findAllById(requested);
+        Map<Long, Long> expectedVersions = new HashMap<>();
+        current.forEach((id, order) -> expectedVersions.put(id, order.getVersion() == null ? 0L : order.getVersion()));
+        Set<Long> patchedIds = orderRepository.patchAll(expectedVersions, patch);
+
+        List<Long> conflicting = new ArrayList<>();
+        for (Long id : requested) {
+            Order order = current.get(id);
+            if (order == null) {
+                missing.add(id);
+            } else if (patchedIds.contains(id)) {
+                Order patchedOrder = patched(order, patch, expectedVersions.get(id));
+                orderCache.put(id, patchedOrder);
+                eventPublisher.publishEvent(OrderChangedEvent.updated(order, patchedOrder));
+                orders.add(patchedOrder);
+            } else {
+                orderCache.evict(id);
+                conflicting.add(id);
+            }
+        }
+        if (conflicting.isEmpty()) {
+            return ResponseEntity.ok(new OrderPatchResponse(orders, missing, conflicting));
+        }
+        if (orders.isEmpty()) {
+            throw new PreconditionFailedException("Some of the orders were modified concurrently or deleted, so "
+                    + conflicting.size() + " of " + expectedVersions.size() + " were not updated; reload them and retry");
+        }
+        return ResponseEntity.status(HttpStatus.MULTI_STATUS).body(new OrderPatchResponse(orders, missing, conflicting));
+    }
+
+    // The state an UPDATE of the patch's fields leaves behind, given the order it was applied to
+    private static Order patched(Order current, Order patch, long version) {
+        Order next = new Order(current);
+        applyChanges(next, patch);
+        next.setVersion(version + 1);
+        return next;
+    }
+
+    // Copy the fields that are set; a full update sets all of them
+    private static void applyChanges(Order target, Order changes) {
+        if (changes.getCustomerName() != null) {
+            target.setCustomerName(changes.getCustomerName());
+        }
+        if (changes.getShippingAddress() != null) {
+            target.setShippingAddress(changes.getShippingAddress());
+        }
+        if (changes.getTotal() != null) {
+            target.setTotal(changes.getTotal());
+        }
+    }
+
+    // Apply an update (full or partial) on top of the latest pending or stored state and queue it instead of saving it
+    private Order updateOrderWriteBehind(Long id, String ifMatch, Order updatedOrder) {
+        Order current = writeBehindBuffer.findPending(id)
+                .or(() -> orderCache.findById(id))
                 .orElseThrow(() -> new OrderNotFoundException("Order not found with id: " + id));
+        checkIfMatch(ifMatch, current);
+        Order next = new Order(current);
+        applyChanges(next, updatedOrder);
+        writeBehindBuffer.acceptUpdate(current, next);
+        orderCache.put(id, next);
+        return next;
+    }
+
+    private static void checkIfMatch(String ifMatch, Order current) {
+        if (!OrderETag.matches(ifMatch, current)) {
+            throw new PreconditionFailedException("Order " + current.getId() + " is at version " + current.getVersion()
+                    + ", which does not match If-Match " + ifMatch);
+        }
     }
 
     // Delete an order
     @DeleteMapping("/{id}")
     public ResponseEntity<String> deleteOrder(@PathVariable Long id) {
-        if (!orderRepository.existsById(id)) {
-            throw new OrderNotFoundException("Order not found with id: " + id);
+        // Deletes are not queued; a delete racing the flush of the same order could be overtaken by it
+        if (writeBehindBuffer != null && writeBehindBuffer.findPending(id).isPresent()) {
+            throw new ServiceUnavailableException("Order " + id + " is still being written, please retry later");
         }
-        orderRepository.deleteById(id);
+        // Load the row rather than just checking it exists: listeners need what is being removed
+        Order order = orderRepository.findById(id)
+                .orElseThrow(() -> new OrderNotFoundException("Order not found with id: " + id));
+        orderRepository.delete(order);
+        orderCache.evict(id);
+        eventPublisher.publishEvent(OrderChangedEvent.deleted(order));
         return ResponseEntity.ok("Order deleted successfully");
     }
 
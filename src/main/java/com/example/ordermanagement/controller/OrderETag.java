@@ -0,0 +1,43 @@
+package com.example.ordermanagement.controller;
+
+import com.example.ordermanagement.entity.Order;
+
+/**
+ * Strong entity tag of an order, derived from its version: {@code "<version>"}.
+ */
+final class OrderETag {
+
+    private OrderETag() {
+    }
+
+    /**
+     * @return The quoted tag, or null for an order without a version.
+     */
+    static String of(Order order) {
+        return order.getVersion() == null ? null : "\"" + order.getVersion() + "\"";
+    }
+
+    /**
+     * Evaluates an If-Match header against the current state of an order, using strong comparison.
+     *
+     * @param ifMatch The header value: "*" or a comma-separated list of tags; null means no precondition.
+     * @param order   The order as currently stored.
+     * @return True when the request may proceed.
+     */
+    static boolean matches(String ifMatch, Order order) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return true;
+        }
+        String current = of(order);
+        if (current == null) {
+            return false;
+        }
+        for (String tag : ifMatch.split(",")) {
+            // Weak tags never match under strong comparison
+            if (tag.trim().equals(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.ordermanagement.controller;
+
+import com.example.ordermanagement.dto.OrderReportResponse;
+import com.example.ordermanagement.report.OrderReportService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/orders/report")
+public class OrderReportController {
+
+    private final OrderReportService orderReportService;
+
+    @Autowired
+    public OrderReportController(OrderReportService orderReportService) {
+        this.orderReportService = orderReportService;
+    }
+
+    // Aggregate the orders matching the filters from the columnar snapshot
+    @GetMapping
+    public OrderReportResponse getReport(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+                                         @RequestParam(required = false) Double minTotal,
+                                         @RequestParam(required = false) Double maxTotal,
+                                         @RequestParam(defaultValue = "10") int topCustomers) {
+        return orderReportService.report(fromDate, toDate, minTotal, maxTotal, topCustomers);
+    }
+
+    // Rebuild the snapshot from the order table
+    @PostMapping("/refresh")
+    public ResponseEntity<String> refreshReport() {
+        orderReportService.refresh();
+        return ResponseEntity.ok("Order report snapshot refreshed successfully");
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.ordermanagement.controller;
+
+import com.example.ordermanagement.dto.OrderStatsResponse;
+import com.example.ordermanagement.stats.OrderStatistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/orders/stats")
+public class OrderStatsController {
+
+    private final OrderStatistics orderStatistics;
+
+    @Autowired
+    public OrderStatsController(OrderStatistics orderStatistics) {
+        this.orderStatistics = orderStatistics;
+    }
+
+    // Get overall, daily and per-customer revenue
+    @GetMapping
+    public OrderStatsResponse getStats(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fromDate,
+                                       @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate toDate,
+                                       @RequestParam(defaultValue = "10") int topCustomers) {
+        return orderStatistics.getStats(fromDate, toDate, topCustomers);
+    }
+
+    // Recompute the statistics from the order table
+    @PostMapping("/rebuild")
+    public ResponseEntity<String> rebuildStats() {
+        orderStatistics.rebuild();
+        return ResponseEntity.ok("Order statistics rebuilt successfully");
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.ordermanagement.dto;
+
+import java.util.List;
+
+/**
+ * Validation errors for a single item of a bulk request, identified by its zero-based position in the input.
+ */
+public class BulkItemError {
+    private int index;
+    private List<String> errors;
+
+    // Constructor
+    public BulkItemError(int index, List<String> errors) {
+        this.index = index;
+        this.errors = errors;
+    }
+
+    // Getters and setters
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public List<String> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<String> errors) {
+        this.errors = errors;
+    }
+}
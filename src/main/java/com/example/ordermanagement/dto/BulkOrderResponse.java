@@ -0,0 +1,44 @@
+package com.example.ordermanagement.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk order ingestion: how many items were received and created, and why the others were rejected.
+ */
+public class BulkOrderResponse {
+    private int received;
+    private int created;
+    private List<BulkItemError> errors;
+
+    // Constructor
+    public BulkOrderResponse(int received, int created, List<BulkItemError> errors) {
+        this.received = received;
+        this.created = created;
+        this.errors = errors;
+    }
+
+    // Getters and setters
+    public int getReceived() {
+        return received;
+    }
+
+    public void setReceived(int received) {
+        this.received = received;
+    }
+
+    public int getCreated() {
+        return created;
+    }
+
+    public void setCreated(int created) {
+        this.created = created;
+    }
+
+    public List<BulkItemError> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<BulkItemError> errors) {
+        this.errors = errors;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.ordermanagement.dto;
+
+/**
+ * Counters of the order cache.
+ */
+public class CacheStatsResponse {
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long size;
+
+    // Constructor
+    public CacheStatsResponse(long hits, long misses, long evictions, long size) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.size = size;
+    }
+
+    // Getters and setters
+    public long getHits() {
+        return hits;
+    }
+
+    public void setHits(long hits) {
+        this.hits = hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public void setMisses(long misses) {
+        this.misses = misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    public void setEvictions(long evictions) {
+        this.evictions = evictions;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.ordermanagement.dto;
+
+/**
+ * Order count and revenue of one customer.
+ */
+public class CustomerRevenue {
+    private String customerName;
+    private long orderCount;
+    private double revenue;
+
+    // Constructor
+    public CustomerRevenue(String customerName, long orderCount, double revenue) {
+        this.customerName = customerName;
+        this.orderCount = orderCount;
+        this.revenue = revenue;
+    }
+
+    // Getters and setters
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    public void setCustomerName(String customerName) {
+        this.customerName = customerName;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public void setOrderCount(long orderCount) {
+        this.orderCount = orderCount;
+    }
+
+    public double getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(double revenue) {
+        this.revenue = revenue;
+    }
+}
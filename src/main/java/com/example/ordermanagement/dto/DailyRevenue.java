@@ -0,0 +1,44 @@
+package com.example.ordermanagement.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Order count and revenue of the orders placed on one day.
+ */
+public class DailyRevenue {
+    private LocalDate date;
+    private long orderCount;
+    private double revenue;
+
+    // Constructor
+    public DailyRevenue(LocalDate date, long orderCount, double revenue) {
+        this.date = date;
+        this.orderCount = orderCount;
+        this.revenue = revenue;
+    }
+
+    // Getters and setters
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public void setDate(LocalDate date) {
+        this.date = date;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public void setOrderCount(long orderCount) {
+        this.orderCount = orderCount;
+    }
+
+    public double getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(double revenue) {
+        this.revenue = revenue;
+    }
+}
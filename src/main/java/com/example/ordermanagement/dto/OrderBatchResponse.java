@@ -0,0 +1,36 @@
+package com.example.ordermanagement.dto;
+
+import com.example.ordermanagement.entity.Order;
+
+import java.util.List;
+
+/**
+ * Outcome of a batch lookup: the orders found, in the order their IDs were requested, and the IDs that do not exist.
+ */
+public class OrderBatchResponse {
+    private List<Order> orders;
+    private List<Long> missing;
+
+    // Constructor
+    public OrderBatchResponse(List<Order> orders, List<Long> missing) {
+        this.orders = orders;
+        this.missing = missing;
+    }
+
+    // Getters and setters
+    public List<Order> getOrders() {
+        return orders;
+    }
+
+    public void setOrders(List<Order> orders) {
+        this.orders = orders;
+    }
+
+    public List<Long> getMissing() {
+        return missing;
+    }
+
+    public void setMissing(List<Long> missing) {
+        this.missing = missing;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.ordermanagement.dto;
+
+import com.example.ordermanagement.entity.Order;
+import com.example.ordermanagement.event.OrderChangedEvent;
+
+import java.time.Instant;
+
+/**
+ * One entry of the order change stream: what happened to which order, and its position in the stream.
+ */
+public class OrderChange {
+    private long sequence;
+    private OrderChangedEvent.Type type;
+    private Long orderId;
+    private Order order;
+    private Instant timestamp;
+
+    // Constructor
+    public OrderChange(long sequence, OrderChangedEvent.Type type, Long orderId, Order order, Instant timestamp) {
+        this.sequence = sequence;
+        this.type = type;
+        this.orderId = orderId;
+        this.order = order;
+        this.timestamp = timestamp;
+    }
+
+    // Getters and setters
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public OrderChangedEvent.Type getType() {
+        return type;
+    }
+
+    public void setType(OrderChangedEvent.Type type) {
+        this.type = type;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+
+    /**
+     * @return The order after the change, or null for a deletion.
+     */
+    public Order getOrder() {
+        return order;
+    }
+
+    public void setOrder(Order order) {
+        this.order = order;
+    }
+
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(Instant timestamp) {
+        this.timestamp = timestamp;
+    }
+}
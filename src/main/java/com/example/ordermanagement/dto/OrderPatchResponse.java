@@ -0,0 +1,47 @@
+package com.example.ordermanagement.dto;
+
+import com.example.ordermanagement.entity.Order;
+
+import java.util.List;
+
+/**
+ * Outcome of a batch patch: the orders patched, the IDs that do not exist, and the IDs that were not patched
+ * because they were modified concurrently or deleted.
+ */
+public class OrderPatchResponse {
+    private List<Order> orders;
+    private List<Long> missing;
+    private List<Long> conflicting;
+
+    // Constructor
+    public OrderPatchResponse(List<Order> orders, List<Long> missing, List<Long> conflicting) {
+        this.orders = orders;
+        this.missing = missing;
+        this.conflicting = conflicting;
+    }
+
+    // Getters and setters
+    public List<Order> getOrders() {
+        return orders;
+    }
+
+    public void setOrders(List<Order> orders) {
+        this.orders = orders;
+    }
+
+    public List<Long> getMissing() {
+        return missing;
+    }
+
+    public void setMissing(List<Long> missing) {
+        this.missing = missing;
+    }
+
+    public List<Long> getConflicting() {
+        return conflicting;
+    }
+
+    public void setConflicting(List<Long> conflicting) {
+        this.conflicting = conflicting;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.ordermanagement.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Totals over the orders matching a report's filters, computed from the columnar order snapshot.
+ */
+public class OrderReportResponse {
+    private Instant snapshotTakenAt;
+    private long snapshotSize;
+    private long orderCount;
+    private double revenue;
+    private List<DailyRevenue> daily;
+    private List<CustomerRevenue> customers;
+
+    // Constructor
+    public OrderReportResponse(Instant snapshotTakenAt, long snapshotSize, long orderCount, double revenue,
+                               List<DailyRevenue> daily, List<CustomerRevenue> customers) {
+        this.snapshotTakenAt = snapshotTakenAt;
+        this.snapshotSize = snapshotSize;
+        this.orderCount = orderCount;
+        this.revenue = revenue;
+        this.daily = daily;
+        this.customers = customers;
+    }
+
+    // Getters and setters
+    public Instant getSnapshotTakenAt() {
+        return snapshotTakenAt;
+    }
+
+    public void setSnapshotTakenAt(Instant snapshotTakenAt) {
+        this.snapshotTakenAt = snapshotTakenAt;
+    }
+
+    public long getSnapshotSize() {
+        return snapshotSize;
+    }
+
+    public void setSnapshotSize(long snapshotSize) {
+        this.snapshotSize = snapshotSize;
+    }
+
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public void setOrderCount(long orderCount) {
+        this.orderCount = orderCount;
+    }
+
+    public double getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(double revenue) {
+        this.revenue = revenue;
+    }
+
+    public List<DailyRevenue> getDaily() {
+        return daily;
+    }
+
+    public void setDaily(List<DailyRevenue> daily) {
+        this.daily = daily;
+    }
+
+    public List<CustomerRevenue> getCustomers() {
+        return customers;
+    }
+
+    public void setCustomers(List<CustomerRevenue> customers) {
+        this.customers = customers;
+    }
+}
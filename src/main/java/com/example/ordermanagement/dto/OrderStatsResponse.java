@@ -0,0 +1,54 @@
+package com.example.ordermanagement.dto;
+
+import java.util.List;
+
+/**
+ * Order statistics: overall totals, revenue per day and revenue per customer.
+ */
+public class OrderStatsResponse {
+    private long orderCount;
+    private double revenue;
+    private List<DailyRevenue> daily;
+    private List<CustomerRevenue> customers;
+
+    // Constructor
+    public OrderStatsResponse(long orderCount, double revenue, List<DailyRevenue> daily, List<CustomerRevenue> customers) {
+        this.orderCount = orderCount;
+        this.revenue = revenue;
+        this.daily = daily;
+        this.customers = customers;
+    }
+
+    // Getters and setters
+    public long getOrderCount() {
+        return orderCount;
+    }
+
+    public void setOrderCount(long orderCount) {
+        this.orderCount = orderCount;
+    }
+
+    public double getRevenue() {
+        return revenue;
+    }
+
+    public void setRevenue(double revenue) {
+        this.revenue = revenue;
+    }
+
+    public List<DailyRevenue> getDaily() {
+        return daily;
+    }
+
+    public void setDaily(List<DailyRevenue> daily) {
+        this.daily = daily;
+    }
+
+    public List<CustomerRevenue> getCustomers() {
+        return customers;
+    }
+
+    public void setCustomers(List<CustomerRevenue> customers) {
+        this.customers = customers;
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.ordermanagement.entity;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
@@ -9,13 +11,27 @@ import java.time.LocalDate;
 
 /**
  * Represents an Order entity, stored in the database as a table named "order".
+ * The table is indexed on the columns used by the order search.
  */
 @Entity
-@Table(name = "`order`")
+@Table(name = "`order`", indexes = {
+        // Serves customer lookups with or without a date range
+        @Index(name = "idx_order_customer_date", columnList = "customerName, orderDate"),
+        @Index(name = "idx_order_date", columnList = "orderDate"),
+        @Index(name = "idx_order_total", columnList = "total")
+})
 public class Order {
 
+    // Sequence with a pooled optimizer: IDs are handed out in memory, 50 per round trip,
+    // so Hibernate can batch inserts (IDENTITY forces one INSERT per row).
+    // On a sharded store the ID is assigned before saving (see ShardRouter) and kept as is.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_seq")
+    @GenericGenerator(name = "order_seq", type = OrderIdGenerator.class, parameters = {
+            @Parameter(name = "sequence_name", value = "order_seq"),
+            @Parameter(name = "increment_size", value = "50"),
+            @Parameter(name = "optimizer", value = "pooled")
+    })
     private Long id;
 
     @NotBlank(message = "Customer name must not be blank")
@@ -30,6 +46,10 @@ public class Order {
     @Positive(message = "Total must be a positive number")
     private Double total;
 
+    // Incremented on every update; stale writes fail instead of overwriting a newer state. Exposed as the ETag.
+    @Version
+    private Long version;
+
     /**
      * Default constructor for the Order entity.
      */
@@ -52,6 +72,20 @@ public class Order {
         this.total = total;
     }
 
+    /**
+     * Copy constructor, used to keep the state of an order as it was before a change.
+     *
+     * @param other The order to copy, including its ID, order date and version.
+     */
+    public Order(Order other) {
+        this.id = other.id;
+        this.version = other.version;
+        this.customerName = other.customerName;
+        this.orderDate = other.orderDate;
+        this.shippingAddress = other.shippingAddress;
+        this.total = other.total;
+    }
+
     /**
      * Getters and setters
      */
@@ -60,6 +94,11 @@ public class Order {
     }
 
 
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+
     public String getCustomerName() {
         return customerName;
     }
@@ -98,5 +137,14 @@ public class Order {
     public void setTotal(Double total) {
         this.total = total;
     }
-}
 
+
+    public Long getVersion() {
+        return version;
+    }
+
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.ordermanagement.entity;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+/**
+ * Pooled "order_seq" sequence generator that keeps an ID already set on the order.
+ * On a sharded store new orders get their ID up front, because the ID decides the shard they are written to.
+ */
+public class OrderIdGenerator extends SequenceStyleGenerator {
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        Long assigned = ((Order) object).getId();
+        return assigned != null ? assigned : super.generate(session, object);
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.ordermanagement.event;
+
+import com.example.ordermanagement.entity.Order;
+
+/**
+ * Published after a change to an order has been committed.
+ * Carries the order as it was before the change and as it is after it, so listeners can apply deltas.
+ */
+public class OrderChangedEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        // Moved from the order table to the archive: gone from the table like a delete, but still readable
+        ARCHIVED
+    }
+
+    private final Type type;
+    private final Long orderId;
+    private final Order previous;
+    private final Order current;
+
+    private OrderChangedEvent(Type type, Long orderId, Order previous, Order current) {
+        this.type = type;
+        this.orderId = orderId;
+        this.previous = previous;
+        this.current = current;
+    }
+
+    public static OrderChangedEvent created(Order order) {
+        return new OrderChangedEvent(Type.CREATED, order.getId(), null, order);
+    }
+
+    public static OrderChangedEvent updated(Order previous, Order current) {
+        return new OrderChangedEvent(Type.UPDATED, current.getId(), previous, current);
+    }
+
+    public static OrderChangedEvent deleted(Order previous) {
+        return new OrderChangedEvent(Type.DELETED, previous.getId(), previous, null);
+    }
+
+    public static OrderChangedEvent archived(Order previous) {
+        return new OrderChangedEvent(Type.ARCHIVED, previous.getId(), previous, null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    /**
+     * @return The order before the change, or null for {@link Type#CREATED}.
+     */
+    public Order getPrevious() {
+        return previous;
+    }
+
+    /**
+     * @return The order after the change, or null for {@link Type#DELETED} and {@link Type#ARCHIVED}.
+     */
+    public Order getCurrent() {
+        return current;
+    }
+}
@@ -1,7 +1,10 @@
 package com.example.ordermanagement.exception;
 
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.validation.BindException;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
@@ -23,6 +26,79 @@ public class OrderExceptionHandler {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
     }
 
+    // Exception handler for InvalidCursorException
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<CustomErrorResponse> handleInvalidCursorException(InvalidCursorException ex) {
+        CustomErrorResponse errorResponse = new CustomErrorResponse("Bad Request", List.of(ex.getMessage()));
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+    }
+
+    // Exception handler for BatchTooLargeException
+    @ExceptionHandler(BatchTooLargeException.class)
+    public ResponseEntity<CustomErrorResponse> handleBatchTooLargeException(BatchTooLargeException ex) {
+        CustomErrorResponse errorResponse = new CustomErrorResponse("Bad Request", List.of(ex.getMessage()));
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+    }
+
+    // Exception handler for RuntimeJsonMappingException (malformed item in a streamed request body)
+    @ExceptionHandler(RuntimeJsonMappingException.class)
+    public ResponseEntity<CustomErrorResponse> handleRuntimeJsonMappingException(RuntimeJsonMappingException ex) {
+        CustomErrorResponse errorResponse = new CustomErrorResponse("Malformed Request Body", List.of(ex.getMessage()));
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+    }
+
+    // Exception handler for ServiceUnavailableException (server is shedding load)
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public ResponseEntity<CustomErrorResponse> handleServiceUnavailableException(ServiceUnavailableException ex) {
+        CustomErrorResponse errorResponse = new CustomErrorResponse("Service Unavailable", List.of(ex.getMessage()));
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse);
+    }
+
+    // Exception handler for TooManyRequestsException (client is over its request rate)
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity<CustomErrorResponse> handleTooManyRequestsException(TooManyRequestsException ex) {
+        CustomErrorResponse errorResponse = new CustomErrorResponse("Too Many Requests", List.of(ex.getMessage()));
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(errorResponse);
+    }
+
+    // Exception handler for PreconditionFailedException (If-Match does not match the current version)
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<CustomErrorResponse> handlePreconditionFailedException(PreconditionFailedException ex) {
+        CustomErrorResponse errorResponse = new CustomErrorResponse("Precondition Failed", List.of(ex.getMessage()));
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(errorResponse);
+    }
+
+    // Exception handler for ObjectOptimisticLockingFailureException (another writer committed first)
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ResponseEntity<CustomErrorResponse> handleOptimisticLockingFailureException(ObjectOptimisticLockingFailureException ex) {
+        CustomErrorResponse errorResponse = new CustomErrorResponse("Precondition Failed",
+                List.of("Order " + ex.getIdentifier() + " was modified concurrently, reload it and retry"));
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(errorResponse);
+    }
+
+    // Exception handler for IdempotencyKeyReusedException (same key, different request body)
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<CustomErrorResponse> handleIdempotencyKeyReusedException(IdempotencyKeyReusedException ex) {
+        CustomErrorResponse errorResponse = new CustomErrorResponse("Unprocessable Entity", List.of(ex.getMessage()));
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(errorResponse);
+    }
+
+    // Exception handler for IdempotencyKeyInProgressException (the first request with the key has not finished)
+    @ExceptionHandler(IdempotencyKeyInProgressException.class)
+    public ResponseEntity<CustomErrorResponse> handleIdempotencyKeyInProgressException(IdempotencyKeyInProgressException ex) {
+        CustomErrorResponse errorResponse = new CustomErrorResponse("Conflict", List.of(ex.getMessage()));
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse);
+    }
+
+    // Exception handler for SequenceExpiredException (change stream position older than the replay window)
+    @ExceptionHandler(SequenceExpiredException.class)
+    public ResponseEntity<CustomErrorResponse> handleSequenceExpiredException(SequenceExpiredException ex) {
+        CustomErrorResponse errorResponse = new CustomErrorResponse("Gone", List.of(ex.getMessage()));
+        return ResponseEntity.status(HttpStatus.GONE).body(errorResponse);
+    }
+
     // Exception handler for BindException
     @ExceptionHandler(BindException.class)
     public ResponseEntity<CustomErrorResponse> handleBindException(BindException ex) {
@@ -0,0 +1,12 @@
+package com.example.ordermanagement.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.GONE)
+public class SequenceExpiredException extends RuntimeException {
+
+    public SequenceExpiredException(String message) {
+        super(message);
+    }
+}
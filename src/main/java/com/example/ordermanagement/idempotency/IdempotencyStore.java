@@ -0,0 +1,224 @@
+package com.example.ordermanagement.idempotency;
+
+import com.example.ordermanagement.exception.CustomErrorResponse;
+import com.example.ordermanagement.exception.IdempotencyKeyInProgressException;
+import com.example.ordermanagement.exception.IdempotencyKeyReusedException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Runs a request at most once per Idempotency-Key and answers repeats with the stored response.
+ * <p>
+ * Keys live in a bounded Caffeine map, evicted by size and after orders.idempotency.ttl. Each entry is a future
+ * of the response: the first request with a key installs it atomically and runs; duplicates arriving meanwhile
+ * wait for it (up to orders.idempotency.wait-timeout, then 409) and get the same status and body. If the first
+ * request fails, its entry is removed and a waiting duplicate runs the request itself.
+ * <p>
+ * With orders.idempotency.persistent=true, keys are also claimed in {@link JdbcIdempotencyRepository}, which
+ * makes deduplication hold across restarts and instances. A claim is a lease of orders.idempotency.lease, which must
+ * be much longer than any request: only a claim left without a response for that long (its instance crashed) can be
+ * claimed again. If the request ran but its response could not be stored, a 500 marker saying so is stored instead,
+ * so no retry runs it a second time, here or on another instance.
+ * Repeats are counted in "orders.idempotency.replays".
+ */
+@Component
+public class IdempotencyStore implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+
+    // Response header set on replayed responses
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private final ObjectMapper objectMapper;
+    // Null unless orders.idempotency.persistent=true
+    private final JdbcIdempotencyRepository repository;
+    private final Duration timeToLive;
+    private final Duration lease;
+    private final long waitTimeoutNanos;
+    private final ConcurrentMap<String, CompletableFuture<StoredResponse>> responses;
+
+    private final LongAdder replays = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    // Last purge of expired database rows, in epoch millis
+    private final AtomicLong lastPurge = new AtomicLong();
+
+    @Autowired
+    public IdempotencyStore(ObjectMapper objectMapper,
+                            Optional<JdbcIdempotencyRepository> repository,
+                            @Value("${orders.idempotency.maximum-size:100000}") long maximumSize,
+                            @Value("${orders.idempotency.ttl:24h}") Duration timeToLive,
+                            @Value("${orders.idempotency.wait-timeout:10s}") Duration waitTimeout,
+                            @Value("${orders.idempotency.lease:1h}") Duration lease) {
+        this.objectMapper = objectMapper;
+        this.repository = repository.orElse(null);
+        this.timeToLive = timeToLive;
+        this.lease = lease;
+        this.waitTimeoutNanos = waitTimeout.toNanos();
+        Cache<String, CompletableFuture<StoredResponse>> cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .build();
+        this.responses = cache.asMap();
+    }
+
+    /**
+     * Hashes a request body, to tell a retry apart from a different request reusing the same key.
+     */
+    public String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("Could not fingerprint the request", ex);
+        }
+    }
+
+    /**
+     * Runs the action unless a request with the same key already ran, in which case its response is returned.
+     *
+     * @param key         The Idempotency-Key.
+     * @param fingerprint {@link #fingerprint} of the request body.
+     * @param action      Handles the request; thrown exceptions are not stored, so the request can be retried.
+     * @return The action's response, or the stored one with the {@link #REPLAYED_HEADER} header.
+     * @throws IdempotencyKeyReusedException     if the key was used for a different request body.
+     * @throws IdempotencyKeyInProgressException if the first request with the key is still running.
+     */
+    public ResponseEntity<?> execute(String key, String fingerprint, Supplier<ResponseEntity<?>> action) {
+        while (true) {
+            CompletableFuture<StoredResponse> claim = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> existing = responses.putIfAbsent(key, claim);
+            if (existing == null) {
+                return runClaimed(key, fingerprint, claim, action);
+            }
+            try {
+                return replay(key, fingerprint, existing.get(waitTimeoutNanos, TimeUnit.NANOSECONDS));
+            } catch (ExecutionException ex) {
+                // The first request failed and gave the key up; try to claim it again
+            } catch (TimeoutException ex) {
+                conflicts.increment();
+                throw new IdempotencyKeyInProgressException("A request with Idempotency-Key " + key
+                        + " is still being processed, retry later");
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IdempotencyKeyInProgressException("Interrupted while waiting for Idempotency-Key " + key);
+            }
+        }
+    }
+
+    private ResponseEntity<?> runClaimed(String key, String fingerprint, CompletableFuture<StoredResponse> claim,
+                                         Supplier<ResponseEntity<?>> action) {
+        Instant claimedAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        if (repository != null) {
+            StoredResponse stored;
+            try {
+                purgeExpiredRows();
+                stored = repository.claim(key, fingerprint, claimedAt, claimedAt.minus(timeToLive), claimedAt.minus(lease));
+            } catch (RuntimeException ex) {
+                if (ex instanceof IdempotencyKeyInProgressException) {
+                    conflicts.increment();
+                }
+                responses.remove(key, claim);
+                claim.completeExceptionally(ex);
+                throw ex;
+            }
+            if (stored != null) {
+                // Finished before a restart or on another instance
+                claim.complete(stored);
+                return replay(key, fingerprint, stored);
+            }
+        }
+
+        ResponseEntity<?> response;
+        StoredResponse stored;
+        try {
+            response = action.get();
+            JsonNode body = objectMapper.valueToTree(response.getBody());
+            stored = new StoredResponse(fingerprint, response.getStatusCode().value(), body);
+        } catch (RuntimeException ex) {
+            responses.remove(key, claim);
+            if (repository != null) {
+                repository.release(key, claimedAt);
+            }
+            claim.completeExceptionally(ex);
+            throw ex;
+        }
+        if (repository != null) {
+            try {
+                repository.complete(key, claimedAt, stored);
+            } catch (RuntimeException ex) {
+                // The request did run, so the claim must not be released; this instance still replays from memory
+                log.warn("Could not store the response for Idempotency-Key {}, storing a marker instead", key, ex);
+                storeUnknownOutcome(key, fingerprint, claimedAt);
+            }
+        }
+        claim.complete(stored);
+        return response;
+    }
+
+    // Completes the claim with a 500 that tells retries the request ran, so the key is never run again
+    private void storeUnknownOutcome(String key, String fingerprint, Instant claimedAt) {
+        CustomErrorResponse error = new CustomErrorResponse("Internal Server Error", List.of("The request with "
+                + "Idempotency-Key " + key + " was processed, but its response could not be stored"));
+        try {
+            repository.complete(key, claimedAt, new StoredResponse(fingerprint, 500, objectMapper.valueToTree(error)));
+        } catch (RuntimeException ex) {
+            log.error("Could not store a marker for Idempotency-Key {}; its claim expires after {}", key, lease, ex);
+        }
+    }
+
+    private ResponseEntity<JsonNode> replay(String key, String fingerprint, StoredResponse stored) {
+        if (!stored.fingerprint().equals(fingerprint)) {
+            throw new IdempotencyKeyReusedException("Idempotency-Key " + key + " was already used for a different request");
+        }
+        replays.increment();
+        return ResponseEntity.status(stored.status()).header(REPLAYED_HEADER, "true").body(stored.body());
+    }
+
+    // Deletes expired rows at most once per tenth of the TTL, on whichever request comes first
+    private void purgeExpiredRows() {
+        long now = System.currentTimeMillis();
+        long last = lastPurge.get();
+        if (now - last >= timeToLive.toMillis() / 10 && lastPurge.compareAndSet(last, now)) {
+            repository.deleteExpired(Instant.ofEpochMilli(now).minus(timeToLive));
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("orders.idempotency.replays", replays, LongAdder::sum)
+                .description("Requests answered with the stored response of an earlier request with the same Idempotency-Key")
+                .register(registry);
+        FunctionCounter.builder("orders.idempotency.conflicts", conflicts, LongAdder::sum)
+                .description("Requests rejected because the first request with their Idempotency-Key was still running")
+                .register(registry);
+    }
+}
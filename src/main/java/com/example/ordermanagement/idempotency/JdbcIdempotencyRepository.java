@@ -0,0 +1,125 @@
+package com.example.ordermanagement.idempotency;
+
+import com.example.ordermanagement.exception.IdempotencyKeyInProgressException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Idempotency keys in the "idempotency_key" table, so retries are recognised across restarts and across
+ * application instances sharing the database. Switched on with orders.idempotency.persistent=true.
+ * <p>
+ * A key is claimed by inserting its row before the request runs; the primary key lets only one claim succeed.
+ * The response is written to the row once the request has finished. Rows older than the TTL count as absent, and
+ * so do claims still without a response after the lease: the instance holding them is assumed to have died
+ * mid-request. The row's created_at is the claim time, and only the claim made at that time may complete or
+ * release it.
+ */
+@Repository
+@ConditionalOnProperty(name = "orders.idempotency.persistent", havingValue = "true")
+public class JdbcIdempotencyRepository {
+
+    private static final String CREATE_TABLE_SQL = "CREATE TABLE IF NOT EXISTS idempotency_key ("
+            + "idempotency_key VARCHAR(255) NOT NULL PRIMARY KEY, "
+            + "fingerprint VARCHAR(64) NOT NULL, "
+            + "status INT, "
+            + "body CLOB, "
+            + "created_at TIMESTAMP NOT NULL)";
+    private static final String CREATE_INDEX_SQL =
+            "CREATE INDEX IF NOT EXISTS idx_idempotency_key_created_at ON idempotency_key (created_at)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public JdbcIdempotencyRepository(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        jdbcTemplate.execute(CREATE_TABLE_SQL);
+        jdbcTemplate.execute(CREATE_INDEX_SQL);
+    }
+
+    /**
+     * Claims a key for a request that is about to run.
+     *
+     * @param key           The Idempotency-Key.
+     * @param fingerprint   Hash of the request body.
+     * @param claimedAt     The claim time, to pass to {@link #complete} and {@link #release}; millisecond precision.
+     * @param expiredBefore Rows created before this instant are replaced.
+     * @param staleBefore   Claims without a response made before this instant (their lease ran out) are replaced.
+     * @return The stored response if a request with this key already finished, or null if the caller now owns the key.
+     * @throws IdempotencyKeyInProgressException if another instance is still running a request with this key.
+     */
+    StoredResponse claim(String key, String fingerprint, Instant claimedAt, Instant expiredBefore, Instant staleBefore) {
+        jdbcTemplate.update("DELETE FROM idempotency_key WHERE idempotency_key = ? "
+                        + "AND (created_at < ? OR (status IS NULL AND created_at < ?))",
+                key, Timestamp.from(expiredBefore), Timestamp.from(staleBefore));
+        try {
+            jdbcTemplate.update("INSERT INTO idempotency_key (idempotency_key, fingerprint, created_at) VALUES (?, ?, ?)",
+                    key, fingerprint, Timestamp.from(claimedAt));
+            return null;
+        } catch (DuplicateKeyException ex) {
+            List<StoredResponse> rows = jdbcTemplate.query(
+                    "SELECT fingerprint, status, body FROM idempotency_key WHERE idempotency_key = ?",
+                    // No status yet means the request holding the key has not finished
+                    (resultSet, rowNum) -> resultSet.getObject("status") == null ? null
+                            : new StoredResponse(resultSet.getString("fingerprint"), resultSet.getInt("status"),
+                                    readBody(resultSet.getString("body"))),
+                    key);
+            if (rows.isEmpty() || rows.get(0) == null) {
+                // Still running elsewhere, or released between our insert and this read
+                throw new IdempotencyKeyInProgressException("A request with Idempotency-Key " + key
+                        + " is still being processed, retry later");
+            }
+            return rows.get(0);
+        }
+    }
+
+    /**
+     * Records the final response of the request that claimed the key, unless its claim went stale and was replaced.
+     */
+    void complete(String key, Instant claimedAt, StoredResponse response) {
+        jdbcTemplate.update("UPDATE idempotency_key SET status = ?, body = ? WHERE idempotency_key = ? AND created_at = ?",
+                response.status(), writeBody(response), key, Timestamp.from(claimedAt));
+    }
+
+    /**
+     * Gives up a claim after the request failed, so a retry runs it again.
+     */
+    void release(String key, Instant claimedAt) {
+        jdbcTemplate.update("DELETE FROM idempotency_key WHERE idempotency_key = ? AND created_at = ? AND status IS NULL",
+                key, Timestamp.from(claimedAt));
+    }
+
+    /**
+     * Deletes every row created before the given instant.
+     */
+    void deleteExpired(Instant expiredBefore) {
+        jdbcTemplate.update("DELETE FROM idempotency_key WHERE created_at < ?", Timestamp.from(expiredBefore));
+    }
+
+    private String writeBody(StoredResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response.body());
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize the stored response", ex);
+        }
+    }
+
+    private JsonNode readBody(String body) {
+        try {
+            return objectMapper.readTree(body);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not read the stored response", ex);
+        }
+    }
+}
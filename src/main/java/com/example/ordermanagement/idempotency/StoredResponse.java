@@ -0,0 +1,13 @@
+package com.example.ordermanagement.idempotency;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Final response to a request with an Idempotency-Key, kept to answer retries of that request.
+ *
+ * @param fingerprint Hash of the request body the response belongs to.
+ * @param status      HTTP status code.
+ * @param body        Response body as a JSON tree, so it can be rendered in any negotiated format.
+ */
+record StoredResponse(String fingerprint, int status, JsonNode body) {
+}
@@ -0,0 +1,106 @@
+package com.example.ordermanagement.journal;
+
+import com.example.ordermanagement.entity.Order;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * One entry of the order journal: the full state of an order after an upsert, or its last state before a delete.
+ * <p>
+ * On disk: payload length (int), CRC32 of the payload (int), then the payload: a type byte followed by the order
+ * as JSON. A zero length marks the unused tail of a segment; a short or corrupt record marks a torn write.
+ */
+final class JournalRecord {
+
+    static final byte UPSERT = 1;
+    static final byte DELETE = 2;
+
+    static final int HEADER_SIZE = 8;
+
+    private final byte type;
+    private final Order order;
+
+    JournalRecord(byte type, Order order) {
+        this.type = type;
+        this.order = order;
+    }
+
+    byte getType() {
+        return type;
+    }
+
+    Order getOrder() {
+        return order;
+    }
+
+    boolean isDelete() {
+        return type == DELETE;
+    }
+
+    /**
+     * Picks the record that describes the later state of the same order. A delete is final (IDs are never reused),
+     * otherwise the higher version wins, so records can be applied in any order.
+     */
+    static JournalRecord latest(JournalRecord a, JournalRecord b) {
+        if (a.isDelete() || b.isDelete()) {
+            return a.isDelete() ? a : b;
+        }
+        return version(b) > version(a) ? b : a;
+    }
+
+    private static long version(JournalRecord record) {
+        Long version = record.order.getVersion();
+        return version == null ? -1L : version;
+    }
+
+    static byte[] encode(byte type, Order order, ObjectWriter writer) throws IOException {
+        byte[] json = writer.writeValueAsBytes(order);
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(json);
+        return ByteBuffer.allocate(HEADER_SIZE + 1 + json.length)
+                .putInt(1 + json.length)
+                .putInt((int) crc.getValue())
+                .put(type)
+                .put(json)
+                .array();
+    }
+
+    /**
+     * Reads records until the end of the stream, the unused tail of a segment or the first torn record.
+     */
+    static void readAll(InputStream in, ObjectReader reader, Consumer<JournalRecord> consumer) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+        while (true) {
+            int length;
+            int checksum;
+            byte[] payload;
+            try {
+                length = data.readInt();
+                checksum = data.readInt();
+                if (length <= 0) {
+                    return;
+                }
+                payload = new byte[length];
+                data.readFully(payload);
+            } catch (EOFException ex) {
+                return;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                return;
+            }
+            consumer.accept(new JournalRecord(payload[0], reader.readValue(payload, 1, length - 1)));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.ordermanagement.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A fixed-size journal file mapped into memory. Appends are plain memory writes; {@link #forceUpTo} makes
+ * them durable. The file is created at its full size, so the unwritten tail reads as zeros.
+ */
+final class JournalSegment implements Closeable {
+
+    private final int index;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private int forcedTo;
+    private boolean closed;
+
+    private JournalSegment(int index, FileChannel channel, MappedByteBuffer buffer) {
+        this.index = index;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    static Path path(Path directory, int index) {
+        return directory.resolve(String.format("journal-%010d.log", index));
+    }
+
+    static JournalSegment create(Path directory, int index, int size) throws IOException {
+        FileChannel channel = FileChannel.open(path(directory, index),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new JournalSegment(index, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+    }
+
+    int index() {
+        return index;
+    }
+
+    // Callers serialize appends
+    boolean tryAppend(byte[] record) {
+        if (buffer.remaining() < record.length) {
+            return false;
+        }
+        buffer.put(record);
+        return true;
+    }
+
+    int position() {
+        return buffer.position();
+    }
+
+    /**
+     * Flushes the bytes written before the given offset to disk, if not done already.
+     */
+    synchronized void forceUpTo(int offset) {
+        if (closed || offset <= forcedTo) {
+            return;
+        }
+        buffer.force(forcedTo, offset - forcedTo);
+        forcedTo = offset;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        buffer.force();
+        closed = true;
+        channel.close();
+    }
+}
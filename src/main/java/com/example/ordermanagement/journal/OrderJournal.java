@@ -0,0 +1,436 @@
+package com.example.ordermanagement.journal;
+
+import com.example.ordermanagement.entity.Order;
+import com.example.ordermanagement.event.OrderChangedEvent;
+import com.example.ordermanagement.repository.OrderIdAllocator;
+import com.example.ordermanagement.repository.OrderJdbcWriter;
+import com.example.ordermanagement.shard.ShardedOrderRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Append-only journal of order changes, so orders survive a restart of the in-memory database.
+ * Switched on with orders.journal.enabled=true.
+ * <p>
+ * Every {@link OrderChangedEvent} is appended to a memory-mapped segment file. The publishing thread then waits
+ * until its record is on disk. A single committer thread forces the mapped pages for all records written since its
+ * last pass, so concurrent writers share one flush (group commit).
+ * <p>
+ * At startup the latest snapshot and the segments written after it are read in parallel. Only the latest state of
+ * each order is kept, then written to the database in parallel batches. Snapshots are taken periodically from the
+ * order table; segments older than the newest snapshot are deleted, which bounds replay time.
+ */
+@Component
+@ConditionalOnProperty(name = "orders.journal.enabled", havingValue = "true")
+public class OrderJournal implements SmartLifecycle, MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderJournal.class);
+
+    private static final Pattern SEGMENT_NAME = Pattern.compile("journal-(\\d{10})\\.log");
+    private static final Pattern SNAPSHOT_NAME = Pattern.compile("snapshot-(\\d{10})\\.dat");
+
+    private final ShardedOrderRepository orderRepository;
+    private final OrderJdbcWriter jdbcWriter;
+    private final OrderIdAllocator idAllocator;
+    private final ObjectReader orderReader;
+    private final ObjectWriter orderWriter;
+    private final Path directory;
+    private final int segmentSize;
+    private final Duration snapshotInterval;
+    private final int replayParallelism;
+    private final int replayBatchSize;
+
+    // Appends and segment rolls are serialized on this; the mapped buffer itself is not thread-safe
+    private JournalSegment active;
+    // Journal positions are (segment index << 32 | offset), so they grow monotonically across segments
+    private volatile long written;
+
+    // Waiters and the committer meet here; lock order is always this, then commitMonitor
+    private final Object commitMonitor = new Object();
+    private long durable;
+
+    private volatile boolean running;
+    private Thread committer;
+    private ScheduledExecutorService snapshotter;
+
+    private volatile long lastReplayMillis;
+    private final AtomicLong lastReplayRecords = new AtomicLong();
+
+    @Autowired
+    public OrderJournal(ShardedOrderRepository orderRepository,
+                        OrderJdbcWriter jdbcWriter,
+                        OrderIdAllocator idAllocator,
+                        ObjectMapper objectMapper,
+                        @Value("${orders.journal.directory:data/journal}") Path directory,
+                        @Value("${orders.journal.segment-size:64MB}") DataSize segmentSize,
+                        @Value("${orders.journal.snapshot-interval:10m}") Duration snapshotInterval,
+                        @Value("${orders.journal.replay-parallelism:4}") int replayParallelism,
+                        @Value("${orders.journal.replay-batch-size:1000}") int replayBatchSize) {
+        this.orderRepository = orderRepository;
+        this.jdbcWriter = jdbcWriter;
+        this.idAllocator = idAllocator;
+        this.orderReader = objectMapper.readerFor(Order.class);
+        this.orderWriter = objectMapper.writerFor(Order.class);
+        this.directory = directory;
+        this.segmentSize = (int) Math.min(Integer.MAX_VALUE, segmentSize.toBytes());
+        this.snapshotInterval = snapshotInterval;
+        this.replayParallelism = Math.max(1, replayParallelism);
+        this.replayBatchSize = Math.max(1, replayBatchSize);
+    }
+
+    @EventListener
+    public void onOrderChanged(OrderChangedEvent event) {
+        if (!running) {
+            throw new IllegalStateException("Order journal is not running; change to order " + event.getOrderId() + " not journaled");
+        }
+        // An archived order leaves the table too, so replay must not bring its row back
+        long position = event.getCurrent() == null
+                ? append(JournalRecord.DELETE, event.getPrevious())
+                : append(JournalRecord.UPSERT, event.getCurrent());
+        awaitDurable(position);
+    }
+
+    private long append(byte type, Order order) {
+        byte[] record;
+        try {
+            record = JournalRecord.encode(type, order, orderWriter);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not encode order " + order.getId() + " for the journal", ex);
+        }
+        if (record.length > segmentSize) {
+            throw new IllegalArgumentException("Journal record of " + record.length + " bytes exceeds the segment size");
+        }
+        long position;
+        synchronized (this) {
+            try {
+                if (!active.tryAppend(record)) {
+                    rollSegment();
+                    active.tryAppend(record);
+                }
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Could not open a new journal segment", ex);
+            }
+            position = position(active.index(), active.position());
+            written = position;
+        }
+        synchronized (commitMonitor) {
+            commitMonitor.notifyAll();
+        }
+        return position;
+    }
+
+    private void awaitDurable(long position) {
+        synchronized (commitMonitor) {
+            while (durable < position) {
+                try {
+                    commitMonitor.wait();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for the journal to be flushed", ex);
+                }
+            }
+        }
+    }
+
+    // Forces everything written since the previous pass with one msync, then releases all waiters it covers
+    private void runCommitter() {
+        while (true) {
+            synchronized (commitMonitor) {
+                while (running && durable >= written) {
+                    try {
+                        commitMonitor.wait();
+                    } catch (InterruptedException ex) {
+                        // Only stop() ends this thread, after the last records are flushed
+                    }
+                }
+                if (!running && durable >= written) {
+                    return;
+                }
+            }
+            JournalSegment segment;
+            long target;
+            synchronized (this) {
+                segment = active;
+                target = written;
+            }
+            segment.forceUpTo(offset(target));
+            markDurable(target);
+        }
+    }
+
+    private void markDurable(long position) {
+        synchronized (commitMonitor) {
+            if (position > durable) {
+                durable = position;
+                commitMonitor.notifyAll();
+            }
+        }
+    }
+
+    // Must hold this. Everything in the previous segment is forced before the new one takes writes.
+    private void rollSegment() throws IOException {
+        JournalSegment previous = active;
+        active = JournalSegment.create(directory, previous.index() + 1, segmentSize);
+        long previousEnd = position(previous.index(), previous.position());
+        previous.close();
+        written = position(active.index(), 0);
+        markDurable(Math.max(previousEnd, written));
+    }
+
+    private static long position(int segmentIndex, int offset) {
+        return ((long) segmentIndex << 32) | offset;
+    }
+
+    private static int offset(long position) {
+        return (int) position;
+    }
+
+    /**
+     * Writes every order in the table to a new snapshot, then deletes the segments and snapshots it supersedes.
+     * Changes made while the snapshot is written go to a fresh segment that is kept and replayed on top of it.
+     */
+    public void snapshot() throws IOException {
+        long started = System.nanoTime();
+        int snapshotIndex;
+        synchronized (this) {
+            rollSegment();
+            snapshotIndex = active.index();
+        }
+
+        Path temporary = directory.resolve("snapshot.tmp");
+        long[] count = new long[1];
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16)) {
+            orderRepository.forEachOrder(order -> {
+                try {
+                    out.write(JournalRecord.encode(JournalRecord.UPSERT, order, orderWriter));
+                    count[0]++;
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Files.move(temporary, snapshotPath(snapshotIndex), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        for (Path file : listFiles(SEGMENT_NAME)) {
+            if (fileIndex(file, SEGMENT_NAME) < snapshotIndex) {
+                Files.deleteIfExists(file);
+            }
+        }
+        for (Path file : listFiles(SNAPSHOT_NAME)) {
+            if (fileIndex(file, SNAPSHOT_NAME) < snapshotIndex) {
+                Files.deleteIfExists(file);
+            }
+        }
+        log.info("Wrote journal snapshot {} with {} orders in {} ms", snapshotIndex, count[0],
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    // Rebuilds the order table from the latest snapshot and the segments after it
+    private void replay() throws IOException {
+        long started = System.nanoTime();
+        List<Path> snapshots = listFiles(SNAPSHOT_NAME);
+        int snapshotIndex = snapshots.isEmpty() ? 0 : fileIndex(snapshots.get(snapshots.size() - 1), SNAPSHOT_NAME);
+        List<Path> sources = new ArrayList<>();
+        if (!snapshots.isEmpty()) {
+            sources.add(snapshots.get(snapshots.size() - 1));
+        }
+        for (Path segment : listFiles(SEGMENT_NAME)) {
+            if (fileIndex(segment, SEGMENT_NAME) >= snapshotIndex) {
+                sources.add(segment);
+            }
+        }
+
+        // Files are read in parallel; records merge by version, so the order in which they are seen does not matter
+        Map<Long, JournalRecord> latest = new ConcurrentHashMap<>();
+        AtomicLong records = new AtomicLong();
+        IntStream.range(0, sources.size()).parallel().forEach(i -> {
+            try (InputStream in = Files.newInputStream(sources.get(i))) {
+                JournalRecord.readAll(in, orderReader, record -> {
+                    latest.merge(record.getOrder().getId(), record, JournalRecord::latest);
+                    records.incrementAndGet();
+                });
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Could not read " + sources.get(i), ex);
+            }
+        });
+
+        List<Order> upserts = new ArrayList<>();
+        List<Long> deletes = new ArrayList<>();
+        long maxId = 0;
+        for (JournalRecord record : latest.values()) {
+            if (record.isDelete()) {
+                deletes.add(record.getOrder().getId());
+            } else {
+                upserts.add(record.getOrder());
+            }
+            maxId = Math.max(maxId, record.getOrder().getId());
+        }
+
+        int batches = (upserts.size() + replayBatchSize - 1) / replayBatchSize;
+        int partitions = Math.min(replayParallelism, Math.max(1, batches));
+        IntStream.range(0, partitions).parallel().forEach(partition -> {
+            for (int batch = partition; batch < batches; batch += partitions) {
+                int from = batch * replayBatchSize;
+                jdbcWriter.upsertAll(upserts.subList(from, Math.min(upserts.size(), from + replayBatchSize)));
+            }
+        });
+        if (!deletes.isEmpty()) {
+            jdbcWriter.deleteAllById(deletes);
+        }
+        if (maxId > 0) {
+            idAllocator.reserveBeyond(maxId);
+        }
+
+        lastReplayMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        lastReplayRecords.set(records.get());
+        log.info("Replayed {} journal records from {} files into {} orders in {} ms",
+                records.get(), sources.size(), upserts.size(), lastReplayMillis);
+    }
+
+    private List<Path> listFiles(Pattern name) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> name.matcher(file.getFileName().toString()).matches())
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static int fileIndex(Path file, Pattern name) {
+        Matcher matcher = name.matcher(file.getFileName().toString());
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Not a journal file: " + file);
+        }
+        return Integer.parseInt(matcher.group(1));
+    }
+
+    private Path snapshotPath(int index) {
+        return directory.resolve(String.format("snapshot-%010d.dat", index));
+    }
+
+    @Override
+    public void start() {
+        try {
+            Files.createDirectories(directory);
+            replay();
+            // New writes always go to a fresh segment, after any file that was just replayed
+            int nextIndex = 0;
+            for (Path file : listFiles(SEGMENT_NAME)) {
+                nextIndex = Math.max(nextIndex, fileIndex(file, SEGMENT_NAME) + 1);
+            }
+            for (Path file : listFiles(SNAPSHOT_NAME)) {
+                nextIndex = Math.max(nextIndex, fileIndex(file, SNAPSHOT_NAME) + 1);
+            }
+            synchronized (this) {
+                active = JournalSegment.create(directory, nextIndex, segmentSize);
+                written = position(nextIndex, 0);
+            }
+            markDurable(written);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not replay the order journal", ex);
+        }
+        running = true;
+        committer = new Thread(this::runCommitter, "order-journal-commit");
+        committer.start();
+
+        snapshotter = Executors.newSingleThreadScheduledExecutor(task -> new Thread(task, "order-journal-snapshot"));
+        long intervalMillis = snapshotInterval.toMillis();
+        snapshotter.scheduleWithFixedDelay(() -> {
+            try {
+                snapshot();
+            } catch (Exception ex) {
+                log.warn("Journal snapshot failed; replay will use the previous one", ex);
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (snapshotter != null) {
+            snapshotter.shutdownNow();
+        }
+        synchronized (commitMonitor) {
+            running = false;
+            commitMonitor.notifyAll();
+        }
+        if (committer != null) {
+            try {
+                committer.join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            try {
+                if (active != null) {
+                    active.close();
+                }
+            } catch (IOException ex) {
+                log.warn("Could not close the journal segment", ex);
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Replays before the write-behind buffer (and the web server) start, and stops after they have drained
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        TimeGauge.builder("orders.journal.replay.time", this, TimeUnit.MILLISECONDS, journal -> journal.lastReplayMillis)
+                .description("Time taken to rebuild the order table from the journal at startup")
+                .register(registry);
+        Gauge.builder("orders.journal.replay.records", lastReplayRecords, AtomicLong::get)
+                .description("Journal records read at startup")
+                .register(registry);
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.ordermanagement.report;
+
+import com.example.ordermanagement.dto.CustomerRevenue;
+import com.example.ordermanagement.dto.DailyRevenue;
+import com.example.ordermanagement.dto.OrderReportResponse;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Read-only, column-oriented copy of the order table for scans: one primitive array per column and customer names
+ * replaced by codes into a dictionary. A scan touches a few contiguous arrays instead of one object per order.
+ * Instances never change once built; refreshing means building a new one.
+ */
+public final class OrderColumns {
+
+    // Epoch day of orders without a date; such orders never match a date filter
+    static final int NO_DATE = Integer.MIN_VALUE;
+
+    // Rows per parallel task, so small snapshots are not split into more tasks than they are worth
+    private static final int MIN_ROWS_PER_TASK = 16_384;
+
+    private final Instant takenAt;
+    private final int size;
+    private final long[] ids;
+    private final double[] totals;
+    private final int[] epochDays;
+    private final int[] customerCodes;
+    private final String[] customerNames;
+    private final int minDay;
+    private final int maxDay;
+
+    private OrderColumns(Instant takenAt, int size, long[] ids, double[] totals, int[] epochDays,
+                         int[] customerCodes, String[] customerNames) {
+        this.takenAt = takenAt;
+        this.size = size;
+        this.ids = ids;
+        this.totals = totals;
+        this.epochDays = epochDays;
+        this.customerCodes = customerCodes;
+        this.customerNames = customerNames;
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int row = 0; row < size; row++) {
+            if (epochDays[row] != NO_DATE) {
+                min = Math.min(min, epochDays[row]);
+                max = Math.max(max, epochDays[row]);
+            }
+        }
+        this.minDay = min;
+        this.maxDay = max;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public Instant getTakenAt() {
+        return takenAt;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Aggregates the orders matching every given filter, scanning row ranges in parallel.
+     *
+     * @param fromDate     Earliest order date, inclusive, or null.
+     * @param toDate       Latest order date, inclusive, or null.
+     * @param minTotal     Smallest total, inclusive, or null.
+     * @param maxTotal     Largest total, inclusive, or null.
+     * @param topCustomers How many customers to include, highest revenue first.
+     * @return Totals of the matching orders, revenue per day in date order and the top customers.
+     */
+    public OrderReportResponse report(LocalDate fromDate, LocalDate toDate, Double minTotal, Double maxTotal, int topCustomers) {
+        Filter filter = new Filter(
+                fromDate == null ? Integer.MIN_VALUE + 1 : (int) fromDate.toEpochDay(),
+                toDate == null ? Integer.MAX_VALUE : (int) toDate.toEpochDay(),
+                minTotal == null ? Double.NEGATIVE_INFINITY : minTotal,
+                maxTotal == null ? Double.POSITIVE_INFINITY : maxTotal);
+
+        int tasks = Math.max(1, Math.min(ForkJoinPool.getCommonPoolParallelism(), size / MIN_ROWS_PER_TASK));
+        int rowsPerTask = (size + tasks - 1) / Math.max(1, tasks);
+        Partial result = IntStream.range(0, tasks).parallel()
+                .mapToObj(task -> scan(filter, task * rowsPerTask, Math.min(size, (task + 1) * rowsPerTask)))
+                .reduce(Partial::merge)
+                .orElseGet(Partial::new);
+
+        List<DailyRevenue> daily = new ArrayList<>();
+        for (int day = 0; day < result.dayCounts.length; day++) {
+            if (result.dayCounts[day] > 0) {
+                daily.add(new DailyRevenue(LocalDate.ofEpochDay(minDay + day), result.dayCounts[day], result.dayRevenue[day]));
+            }
+        }
+        return new OrderReportResponse(takenAt, size, result.count, result.revenue, daily,
+                topCustomers(result, Math.max(0, topCustomers)));
+    }
+
+    private Partial scan(Filter filter, int from, int to) {
+        Partial partial = new Partial(maxDay >= minDay ? maxDay - minDay + 1 : 0, customerNames.length);
+        for (int row = from; row < to; row++) {
+            int day = epochDays[row];
+            double total = totals[row];
+            if (day == NO_DATE || day < filter.fromDay || day > filter.toDay
+                    || total < filter.minTotal || total > filter.maxTotal) {
+                continue;
+            }
+            partial.count++;
+            partial.revenue += total;
+            partial.dayCounts[day - minDay]++;
+            partial.dayRevenue[day - minDay] += total;
+            int customer = customerCodes[row];
+            partial.customerCounts[customer]++;
+            partial.customerRevenue[customer] += total;
+        }
+        return partial;
+    }
+
+    private List<CustomerRevenue> topCustomers(Partial result, int limit) {
+        if (limit == 0) {
+            return List.of();
+        }
+        // Min-heap of the best codes so far; only ever holds `limit` entries
+        Comparator<Integer> byRevenue = Comparator.comparingDouble(code -> result.customerRevenue[code]);
+        PriorityQueue<Integer> best = new PriorityQueue<>(limit + 1, byRevenue);
+        for (int code = 0; code < customerNames.length; code++) {
+            if (result.customerCounts[code] == 0) {
+                continue;
+            }
+            best.add(code);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        List<CustomerRevenue> customers = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            int code = best.poll();
+            customers.add(new CustomerRevenue(customerNames[code], result.customerCounts[code], result.customerRevenue[code]));
+        }
+        customers.sort(Comparator.comparingDouble(CustomerRevenue::getRevenue).reversed());
+        return customers;
+    }
+
+    private record Filter(int fromDay, int toDay, double minTotal, double maxTotal) {
+    }
+
+    private static final class Partial {
+        long count;
+        double revenue;
+        final long[] dayCounts;
+        final double[] dayRevenue;
+        final long[] customerCounts;
+        final double[] customerRevenue;
+
+        Partial() {
+            this(0, 0);
+        }
+
+        Partial(int days, int customers) {
+            dayCounts = new long[days];
+            dayRevenue = new double[days];
+            customerCounts = new long[customers];
+            customerRevenue = new double[customers];
+        }
+
+        Partial merge(Partial other) {
+            count += other.count;
+            revenue += other.revenue;
+            for (int i = 0; i < dayCounts.length; i++) {
+                dayCounts[i] += other.dayCounts[i];
+                dayRevenue[i] += other.dayRevenue[i];
+            }
+            for (int i = 0; i < customerCounts.length; i++) {
+                customerCounts[i] += other.customerCounts[i];
+                customerRevenue[i] += other.customerRevenue[i];
+            }
+            return this;
+        }
+    }
+
+    /**
+     * Collects rows into growable primitive arrays. Not thread-safe.
+     */
+    public static final class Builder {
+
+        private int size;
+        private long[] ids = new long[1024];
+        private double[] totals = new double[1024];
+        private int[] epochDays = new int[1024];
+        private int[] customerCodes = new int[1024];
+        private final Map<String, Integer> dictionary = new HashMap<>();
+        private final List<String> customerNames = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        public Builder add(long id, double total, LocalDate orderDate, String customerName) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                totals = Arrays.copyOf(totals, capacity);
+                epochDays = Arrays.copyOf(epochDays, capacity);
+                customerCodes = Arrays.copyOf(customerCodes, capacity);
+            }
+            ids[size] = id;
+            totals[size] = total;
+            epochDays[size] = orderDate == null ? NO_DATE : (int) orderDate.toEpochDay();
+            customerCodes[size] = dictionary.computeIfAbsent(customerName == null ? "" : customerName, name -> {
+                customerNames.add(name);
+                return customerNames.size() - 1;
+            });
+            size++;
+            return this;
+        }
+
+        public OrderColumns build() {
+            return new OrderColumns(Instant.now(), size, Arrays.copyOf(ids, size), Arrays.copyOf(totals, size),
+                    Arrays.copyOf(epochDays, size), Arrays.copyOf(customerCodes, size), customerNames.toArray(new String[0]));
+        }
+    }
+}
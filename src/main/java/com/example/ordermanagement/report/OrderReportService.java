@@ -0,0 +1,131 @@
+package com.example.ordermanagement.report;
+
+import com.example.ordermanagement.dto.OrderReportResponse;
+import com.example.ordermanagement.shard.ShardRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serves reports from an {@link OrderColumns} snapshot instead of scanning orders through JPA.
+ * <p>
+ * The snapshot is read with plain JDBC, one streamed query per shard, so no entity or persistence context is
+ * created per row. It is rebuilt every orders.report.refresh-interval on a background thread and swapped in
+ * whole; reports may therefore lag behind writes by up to that interval. The first report before any refresh
+ * has finished builds the snapshot on the calling thread.
+ */
+@Component
+public class OrderReportService implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderReportService.class);
+
+    private static final String SNAPSHOT_SQL = "select id, total, order_date, customer_name from \"order\"";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+    private final Duration refreshInterval;
+    private final int fetchSize;
+
+    private volatile OrderColumns snapshot;
+    private ScheduledExecutorService scheduler;
+
+    @Autowired
+    public OrderReportService(JdbcTemplate jdbcTemplate,
+                              ShardRouter shardRouter,
+                              @Value("${orders.report.refresh-interval:1m}") Duration refreshInterval,
+                              @Value("${orders.report.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+        this.refreshInterval = refreshInterval;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Aggregates the current snapshot; see {@link OrderColumns#report}.
+     */
+    public OrderReportResponse report(LocalDate fromDate, LocalDate toDate, Double minTotal, Double maxTotal, int topCustomers) {
+        OrderColumns current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                current = snapshot != null ? snapshot : refresh();
+            }
+        }
+        return current.report(fromDate, toDate, minTotal, maxTotal, topCustomers);
+    }
+
+    /**
+     * Reads every order into a new snapshot and makes it the current one.
+     *
+     * @return The new snapshot.
+     */
+    public synchronized OrderColumns refresh() {
+        long started = System.nanoTime();
+        OrderColumns.Builder builder = OrderColumns.builder();
+        RowCallbackHandler rowHandler = resultSet -> {
+            Date orderDate = resultSet.getDate(3);
+            builder.add(resultSet.getLong(1), resultSet.getDouble(2),
+                    orderDate == null ? null : orderDate.toLocalDate(), resultSet.getString(4));
+        };
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            shardRouter.onShard(shard, () -> {
+                jdbcTemplate.query(connection -> {
+                    PreparedStatement statement = connection.prepareStatement(SNAPSHOT_SQL);
+                    statement.setFetchSize(fetchSize);
+                    return statement;
+                }, rowHandler);
+                return null;
+            });
+        }
+        OrderColumns built = builder.build();
+        snapshot = built;
+        log.debug("Built order snapshot of {} rows in {} ms", built.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        return built;
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException ex) {
+            // Keep serving the previous snapshot; the next run tries again
+            log.warn("Could not refresh the order snapshot", ex);
+        }
+    }
+
+    @Override
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-report-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = Math.max(1, refreshInterval.toMillis());
+        scheduler.scheduleWithFixedDelay(this::refreshQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+}
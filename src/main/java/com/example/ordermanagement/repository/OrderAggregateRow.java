@@ -0,0 +1,17 @@
+package com.example.ordermanagement.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Projection of one (order date, customer) group: how many orders it holds and their summed total.
+ */
+public interface OrderAggregateRow {
+
+    LocalDate getOrderDate();
+
+    String getCustomerName();
+
+    Long getOrderCount();
+
+    Double getRevenue();
+}
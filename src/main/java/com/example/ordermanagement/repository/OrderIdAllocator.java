@@ -0,0 +1,59 @@
+package com.example.ordermanagement.repository;
+
+import com.example.ordermanagement.entity.Order;
+import com.example.ordermanagement.shard.ShardRouter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands out order IDs before an order is written, for code paths that insert rows without going through Hibernate.
+ * It reserves blocks from the same "order_seq" sequence, with the same pooled semantics Hibernate uses:
+ * a sequence value v reserves the IDs (v - 50, v]. IDs never collide with the ones Hibernate assigns.
+ * On a sharded store IDs come from the {@link ShardRouter} instead.
+ */
+@Component
+public class OrderIdAllocator {
+
+    // Must match the allocationSize of the sequence generator on Order
+    static final int BLOCK_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+    private long next;
+    private long blockEnd = -1;
+
+    @Autowired
+    public OrderIdAllocator(JdbcTemplate jdbcTemplate, ShardRouter shardRouter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+    }
+
+    /**
+     * @return The ID for a new order; on a sharded store it also decides the shard the order is written to.
+     */
+    public long nextId(Order order) {
+        return shardRouter.isSharded() ? shardRouter.newId(order.getCustomerName()) : nextId();
+    }
+
+    private synchronized long nextId() {
+        if (next > blockEnd) {
+            Long hi = jdbcTemplate.queryForObject("select next value for order_seq", Long.class);
+            blockEnd = hi;
+            next = Math.max(1, hi - BLOCK_SIZE + 1);
+        }
+        return next++;
+    }
+
+    /**
+     * Moves the sequence past the given ID if it is not already, e.g. after rows were restored with their
+     * original IDs. Blocks Hibernate has already reserved are not affected, so call this before inserting orders.
+     */
+    public synchronized void reserveBeyond(long maxId) {
+        Long hi = jdbcTemplate.queryForObject("select next value for order_seq", Long.class);
+        if (hi < maxId + BLOCK_SIZE) {
+            jdbcTemplate.execute("alter sequence order_seq restart with " + (maxId + BLOCK_SIZE));
+            blockEnd = -1;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.ordermanagement.repository;
+
+import com.example.ordermanagement.entity.Order;
+import com.example.ordermanagement.shard.ShardRouter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Writes orders that already have an ID straight through JDBC, in batches, bypassing the persistence context.
+ * Writes are upserts, so replaying the same orders twice is harmless. The version column is written as given;
+ * callers are responsible for having checked it.
+ * <p>
+ * On a sharded store the rows are grouped by shard and each group is written in its own transaction.
+ * The shard must be chosen before the transaction starts, which is why transactions are opened here
+ * instead of with {@code @Transactional}.
+ */
+@Repository
+public class OrderJdbcWriter {
+
+    private static final String UPSERT_SQL = "MERGE INTO \"order\" (id, customer_name, order_date, shipping_address, total, version) "
+            + "KEY (id) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String DELETE_SQL = "DELETE FROM \"order\" WHERE id = ?";
+    private static final String DELETE_UNCHANGED_SQL = "DELETE FROM \"order\" WHERE id = ? AND COALESCE(version, 0) = ?";
+
+    static final int BATCH_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ShardRouter shardRouter;
+
+    @Autowired
+    public OrderJdbcWriter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, ShardRouter shardRouter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.shardRouter = shardRouter;
+    }
+
+    /**
+     * Inserts or replaces the given orders in one transaction per shard, sending them as JDBC batches.
+     *
+     * @param orders Orders with their ID assigned.
+     */
+    public void upsertAll(Collection<Order> orders) {
+        forEachShard(orders, Order::getId, shardOrders -> jdbcTemplate.batchUpdate(UPSERT_SQL, shardOrders, BATCH_SIZE,
+                (statement, order) -> {
+                    statement.setLong(1, order.getId());
+                    statement.setString(2, order.getCustomerName());
+                    statement.setObject(3, order.getOrderDate());
+                    statement.setString(4, order.getShippingAddress());
+                    statement.setObject(5, order.getTotal());
+                    statement.setObject(6, order.getVersion());
+                }));
+    }
+
+    /**
+     * Deletes the orders with the given IDs in one transaction per shard; IDs without a row are ignored.
+     */
+    public void deleteAllById(Collection<Long> ids) {
+        forEachShard(ids, Function.identity(), shardIds -> jdbcTemplate.batchUpdate(DELETE_SQL, shardIds, BATCH_SIZE,
+                (statement, id) -> statement.setLong(1, id)));
+    }
+
+    /**
+     * Deletes the given orders in one transaction per shard, but only rows still at the version given on the
+     * order; rows changed since they were read are kept.
+     *
+     * @return The orders whose rows were deleted.
+     */
+    public List<Order> deleteAllUnchanged(Collection<Order> orders) {
+        return deleteAllUnchanged(orders, shardDeleted -> { });
+    }
+
+    /**
+     * Like {@link #deleteAllUnchanged(Collection)}, but hands each shard's deleted orders to the callback before
+     * that shard's transaction commits. The deleted rows stay locked until then, and if the callback throws, the
+     * transaction rolls back and the rows are kept.
+     *
+     * @param beforeCommit Called once per shard that had orders, with the orders whose rows it deleted.
+     * @return The orders whose rows were deleted.
+     */
+    public List<Order> deleteAllUnchanged(Collection<Order> orders, Consumer<List<Order>> beforeCommit) {
+        List<Order> deleted = Collections.synchronizedList(new ArrayList<>(orders.size()));
+        forEachShard(orders, Order::getId, shardOrders -> {
+            int[][] counts = jdbcTemplate.batchUpdate(DELETE_UNCHANGED_SQL, shardOrders, BATCH_SIZE,
+                    (statement, order) -> {
+                        statement.setLong(1, order.getId());
+                        statement.setLong(2, order.getVersion() == null ? 0L : order.getVersion());
+                    });
+            // One count per order, in the order the batches were sent
+            Iterator<Order> sent = shardOrders.iterator();
+            List<Order> shardDeleted = new ArrayList<>(shardOrders.size());
+            for (int[] batch : counts) {
+                for (int count : batch) {
+                    Order order = sent.next();
+                    if (count > 0) {
+                        shardDeleted.add(order);
+                    }
+                }
+            }
+            beforeCommit.accept(shardDeleted);
+            deleted.addAll(shardDeleted);
+            return null;
+        });
+        return deleted;
+    }
+
+    private <T> void forEachShard(Collection<T> rows, Function<T, Long> id, Function<Collection<T>, ?> write) {
+        if (!shardRouter.isSharded()) {
+            transactionTemplate.executeWithoutResult(status -> write.apply(rows));
+            return;
+        }
+        Map<Integer, List<T>> byShard = rows.stream().collect(Collectors.groupingBy(row -> shardRouter.shardOf(id.apply(row))));
+        shardRouter.onEachShard(shard -> byShard.containsKey(shard)
+                ? transactionTemplate.execute(status -> write.apply(byShard.get(shard)))
+                : null);
+    }
+}
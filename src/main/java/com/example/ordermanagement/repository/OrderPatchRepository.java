@@ -0,0 +1,34 @@
+package com.example.ordermanagement.repository;
+
+import com.example.ordermanagement.entity.Order;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.util.Map;
+
+/**
+ * Repository fragment for partial updates. Only the fields set on the patch are written, in a single UPDATE
+ * statement: the orders are not loaded first, and there is no dirty checking.
+ */
+public interface OrderPatchRepository {
+
+    /**
+     * Sets the non-null customer name, shipping address and total of the patch on one order, if it is still at
+     * the expected version, and increments its version.
+     *
+     * @param id              The ID of the order.
+     * @param expectedVersion The version the patch applies to.
+     * @param patch           The fields to change; null fields are left as they are.
+     * @return The number of rows updated: 1, or 0 if the order does not exist or is at another version.
+     */
+    int patch(Long id, long expectedVersion, Order patch);
+
+    /**
+     * Applies the same patch to several orders in one UPDATE statement, each only at its expected version, and
+     * increments their versions. Either every order is updated or none is.
+     *
+     * @param expectedVersions The version the patch applies to, by order ID.
+     * @param patch            The fields to change; null fields are left as they are.
+     * @throws ObjectOptimisticLockingFailureException if an order was deleted or is at another version.
+     */
+    void patchAll(Map<Long, Long> expectedVersions, Order patch);
+}
@@ -0,0 +1,89 @@
+package com.example.ordermanagement.repository;
+
+import com.example.ordermanagement.entity.Order;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+class OrderPatchRepositoryImpl implements OrderPatchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public int patch(Long id, long expectedVersion, Order patch) {
+        Query update = entityManager.createQuery(assignments(patch)
+                + " where o.id = :id and coalesce(o.version, 0) = :version");
+        bindPatch(update, patch);
+        return update.setParameter("id", id)
+                .setParameter("version", expectedVersion)
+                .executeUpdate();
+    }
+
+    @Override
+    @Transactional
+    public void patchAll(Map<Long, Long> expectedVersions, Order patch) {
+        if (expectedVersions.isEmpty()) {
+            return;
+        }
+        // One condition per distinct version, which keeps the statement short: most orders share a few versions
+        Map<Long, List<Long>> idsByVersion = new TreeMap<>();
+        expectedVersions.forEach((id, version) -> idsByVersion.computeIfAbsent(version, v -> new ArrayList<>()).add(id));
+
+        StringBuilder jpql = new StringBuilder(assignments(patch)).append(" where ");
+        for (int group = 0; group < idsByVersion.size(); group++) {
+            jpql.append(group == 0 ? "" : " or ")
+                    .append("(coalesce(o.version, 0) = :version").append(group)
+                    .append(" and o.id in :ids").append(group).append(')');
+        }
+        Query update = entityManager.createQuery(jpql.toString());
+        bindPatch(update, patch);
+        int group = 0;
+        for (Map.Entry<Long, List<Long>> entry : idsByVersion.entrySet()) {
+            update.setParameter("version" + group, entry.getKey());
+            update.setParameter("ids" + group, entry.getValue());
+            group++;
+        }
+
+        int updated = update.executeUpdate();
+        if (updated != expectedVersions.size()) {
+            // Rolls the transaction back, so no order of the batch keeps the patch
+            throw new ObjectOptimisticLockingFailureException(Order.class, expectedVersions.keySet());
+        }
+    }
+
+    // The SET clause: the fields present in the patch, and the version
+    private static String assignments(Order patch) {
+        StringBuilder jpql = new StringBuilder("update Order o set ");
+        if (patch.getCustomerName() != null) {
+            jpql.append("o.customerName = :customerName, ");
+        }
+        if (patch.getShippingAddress() != null) {
+            jpql.append("o.shippingAddress = :shippingAddress, ");
+        }
+        if (patch.getTotal() != null) {
+            jpql.append("o.total = :total, ");
+        }
+        return jpql.append("o.version = coalesce(o.version, 0) + 1").toString();
+    }
+
+    private static void bindPatch(Query update, Order patch) {
+        if (patch.getCustomerName() != null) {
+            update.setParameter("customerName", patch.getCustomerName());
+        }
+        if (patch.getShippingAddress() != null) {
+            update.setParameter("shippingAddress", patch.getShippingAddress());
+        }
+        if (patch.getTotal() != null) {
+            update.setParameter("total", patch.getTotal());
+        }
+    }
+}
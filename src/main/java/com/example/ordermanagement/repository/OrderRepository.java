@@ -2,13 +2,33 @@ package com.example.ordermanagement.repository;
 
 
 import com.example.ordermanagement.entity.Order;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, JpaSpecificationExecutor<Order>, OrderStreamRepository,
+        OrderPatchRepository {
 // This interface extends the JpaRepository interface provided by Spring Data JPA.
 // It provides the basic CRUD operations and other database-related operations for the Order entity.
 
-}
+    // Keyset pagination: the next page of orders after the given ID, walking the primary key index
+    List<Order> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    // Smallest and largest order ID, or null when the table is empty; used to split full-table work into ID ranges
+    @Query("select min(o.id) from Order o")
+    Long findMinId();
 
+    @Query("select max(o.id) from Order o")
+    Long findMaxId();
+
+    // Order count and revenue per (order date, customer) for one ID range
+    @Query("select o.orderDate as orderDate, o.customerName as customerName, count(o) as orderCount, sum(o.total) as revenue "
+            + "from Order o where o.id between :fromId and :toId group by o.orderDate, o.customerName")
+    List<OrderAggregateRow> aggregateByDateAndCustomer(@Param("fromId") Long fromId, @Param("toId") Long toId);
+}
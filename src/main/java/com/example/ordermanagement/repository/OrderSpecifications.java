@@ -0,0 +1,60 @@
+package com.example.ordermanagement.repository;
+
+import com.example.ordermanagement.entity.Order;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+
+/**
+ * Search filters for orders. Each filter maps to a single indexed column, so a combination of them
+ * can be answered with an index range scan. A null argument means "no filter".
+ */
+public final class OrderSpecifications {
+
+    private OrderSpecifications() {
+    }
+
+    /**
+     * Combines the given filters; null values are ignored.
+     *
+     * @param customerName Exact customer name.
+     * @param fromDate     Earliest order date, inclusive.
+     * @param toDate       Latest order date, inclusive.
+     * @param minTotal     Smallest total, inclusive.
+     * @param maxTotal     Largest total, inclusive.
+     * @return A specification matching orders that satisfy every given filter.
+     */
+    public static Specification<Order> matching(String customerName, LocalDate fromDate, LocalDate toDate,
+                                                Double minTotal, Double maxTotal) {
+        return Specification.where(customerNameIs(customerName))
+                .and(orderDateFrom(fromDate))
+                .and(orderDateTo(toDate))
+                .and(totalAtLeast(minTotal))
+                .and(totalAtMost(maxTotal));
+    }
+
+    public static Specification<Order> customerNameIs(String customerName) {
+        return customerName == null ? null
+                : (root, query, builder) -> builder.equal(root.get("customerName"), customerName);
+    }
+
+    public static Specification<Order> orderDateFrom(LocalDate fromDate) {
+        return fromDate == null ? null
+                : (root, query, builder) -> builder.greaterThanOrEqualTo(root.get("orderDate"), fromDate);
+    }
+
+    public static Specification<Order> orderDateTo(LocalDate toDate) {
+        return toDate == null ? null
+                : (root, query, builder) -> builder.lessThanOrEqualTo(root.get("orderDate"), toDate);
+    }
+
+    public static Specification<Order> totalAtLeast(Double minTotal) {
+        return minTotal == null ? null
+                : (root, query, builder) -> builder.greaterThanOrEqualTo(root.get("total"), minTotal);
+    }
+
+    public static Specification<Order> totalAtMost(Double maxTotal) {
+        return maxTotal == null ? null
+                : (root, query, builder) -> builder.lessThanOrEqualTo(root.get("total"), maxTotal);
+    }
+}
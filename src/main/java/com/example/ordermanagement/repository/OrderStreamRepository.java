@@ -0,0 +1,19 @@
+package com.example.ordermanagement.repository;
+
+import com.example.ordermanagement.entity.Order;
+
+import java.util.function.Consumer;
+
+/**
+ * Repository fragment for reading the whole order table without materializing it in memory.
+ */
+public interface OrderStreamRepository {
+
+    /**
+     * Hands every order to the given action in ascending ID order, as rows are fetched from the database.
+     * Each order is detached once the action returns, so the persistence context stays small.
+     *
+     * @param action The callback invoked for each order.
+     */
+    void forEachOrder(Consumer<? super Order> action);
+}
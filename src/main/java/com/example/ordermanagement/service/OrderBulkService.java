@@ -0,0 +1,124 @@
+package com.example.ordermanagement.service;
+
+import com.example.ordermanagement.dto.BulkItemError;
+import com.example.ordermanagement.dto.BulkOrderResponse;
+import com.example.ordermanagement.entity.Order;
+import com.example.ordermanagement.event.OrderChangedEvent;
+import com.example.ordermanagement.shard.ShardedOrderRepository;
+import com.example.ordermanagement.validation.OrderValidator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Persists large numbers of orders in fixed-size chunks.
+ * Each chunk is saved in its own transaction (one per shard on a sharded store), so Hibernate sends it as
+ * JDBC batch inserts and the persistence context never holds more than one chunk.
+ */
+@Service
+public class OrderBulkService {
+
+    private final ShardedOrderRepository orderRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+
+    @Autowired
+    public OrderBulkService(ShardedOrderRepository orderRepository,
+                            ApplicationEventPublisher eventPublisher,
+                            @Value("${orders.bulk.chunk-size:1000}") int chunkSize) {
+        this.orderRepository = orderRepository;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Validates and saves every order produced by the iterator. Invalid orders are reported by position
+     * and skipped; valid ones are saved chunk by chunk as they arrive, so the input is never fully buffered.
+     * Chunks already saved stay committed if a later chunk fails.
+     * <p>
+     * An item that cannot be read as an order (a field of the wrong type) is reported like an invalid one, and
+     * reading goes on with the next item. Input that is not well-formed is reported at the position where it
+     * breaks, and nothing after it is read; the orders before it are still saved.
+     *
+     * @param orders The orders to ingest, typically read lazily from the request body.
+     * @return The number of orders received and created, and the errors for each rejected item.
+     */
+    public BulkOrderResponse ingest(Iterator<Order> orders) {
+        List<Order> chunk = new ArrayList<>(chunkSize);
+        List<BulkItemError> errors = new ArrayList<>();
+        LocalDate today = LocalDate.now();
+        int received = 0;
+        int created = 0;
+
+        while (true) {
+            Order order;
+            try {
+                if (!orders.hasNext()) {
+                    break;
+                }
+                order = orders.next();
+            } catch (RuntimeJsonMappingException ex) {
+                // The iterator skips past the item, so the next one can still be read
+                errors.add(new BulkItemError(received++, List.of("order: " + unreadableReason(ex))));
+                continue;
+            } catch (RuntimeException ex) {
+                if (!(ex.getCause() instanceof JsonProcessingException)) {
+                    throw ex;
+                }
+                errors.add(new BulkItemError(received++, List.of("order: " + unreadableReason(ex)
+                        + "; the rest of the input was not read")));
+                break;
+            }
+            List<String> itemErrors = validate(order);
+            if (itemErrors.isEmpty()) {
+                // ID and version are assigned on insert; values sent by the client are ignored
+                order.setId(null);
+                order.setVersion(null);
+                order.setOrderDate(today);
+                chunk.add(order);
+                if (chunk.size() == chunkSize) {
+                    created += saveChunk(chunk);
+                    chunk.clear();
+                }
+            } else {
+                errors.add(new BulkItemError(received, itemErrors));
+            }
+            received++;
+        }
+        if (!chunk.isEmpty()) {
+            created += saveChunk(chunk);
+        }
+        return new BulkOrderResponse(received, created, errors);
+    }
+
+    private static String unreadableReason(RuntimeException ex) {
+        if (ex.getCause() instanceof JsonProcessingException cause) {
+            return cause.getOriginalMessage();
+        }
+        return ex.getMessage();
+    }
+
+    private List<String> validate(Order order) {
+        if (order == null) {
+            return List.of("order: Order must not be null");
+        }
+        return OrderValidator.validate(order);
+    }
+
+    private int saveChunk(List<Order> chunk) {
+        // saveAll opens its own transaction, after the shard has been chosen
+        orderRepository.saveAll(chunk);
+        for (Order order : chunk) {
+            eventPublisher.publishEvent(OrderChangedEvent.created(order));
+        }
+        return chunk.size();
+    }
+}
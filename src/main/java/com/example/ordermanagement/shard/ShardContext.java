@@ -0,0 +1,39 @@
+package com.example.ordermanagement.shard;
+
+import java.util.function.Supplier;
+
+/**
+ * The shard the current thread talks to. {@link ShardRoutingDataSource} reads it when a connection is obtained,
+ * i.e. when a transaction starts, so it must be set before the repository or transaction template is called.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    /**
+     * @return The shard selected for this thread, or null for the default shard.
+     */
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Runs the action against the given shard, restoring the previous selection afterwards.
+     */
+    public static <T> T call(int shard, Supplier<T> action) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.ordermanagement.shard;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Decides which shard an order lives on and runs work against one or all shards.
+ * <p>
+ * New orders are placed by a hash of the customer name and get a {@link SnowflakeIdGenerator} ID that carries
+ * their shard, so later single-order operations route by ID alone. Without a {@link ShardRoutingDataSource}
+ * (orders.sharding.enabled=false) there is a single shard and every method simply runs its work inline.
+ */
+@Component
+public class ShardRouter implements DisposableBean {
+
+    private final int shardCount;
+    private final SnowflakeIdGenerator idGenerator;
+    // Fans out scatter-gather work, one thread per shard; null with a single shard
+    private final ExecutorService executor;
+
+    @Autowired
+    public ShardRouter(Optional<ShardRoutingDataSource> routingDataSource,
+                       @Value("${orders.sharding.node-id:0}") int nodeId) {
+        this.shardCount = routingDataSource.map(ShardRoutingDataSource::getShardCount).orElse(1);
+        if (shardCount > SnowflakeIdGenerator.MAX_SHARDS) {
+            throw new IllegalArgumentException("At most " + SnowflakeIdGenerator.MAX_SHARDS + " shards are supported");
+        }
+        if (routingDataSource.isPresent()) {
+            AtomicInteger threads = new AtomicInteger();
+            this.idGenerator = new SnowflakeIdGenerator(nodeId);
+            this.executor = Executors.newFixedThreadPool(shardCount, task -> {
+                Thread thread = new Thread(task, "order-shard-" + threads.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.idGenerator = null;
+            this.executor = null;
+        }
+    }
+
+    public boolean isSharded() {
+        return idGenerator != null;
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * @return The shard holding the order with the given ID.
+     */
+    public int shardOf(Long id) {
+        return isSharded() ? SnowflakeIdGenerator.shardOf(id) : 0;
+    }
+
+    /**
+     * @return The shard a new order of this customer is placed on.
+     */
+    public int shardForCustomer(String customerName) {
+        return customerName == null ? 0 : Math.floorMod(customerName.hashCode(), shardCount);
+    }
+
+    /**
+     * @return A new ID for an order of this customer, carrying the shard it is placed on.
+     * @throws IllegalStateException when sharding is off; IDs then come from the order sequence.
+     */
+    public long newId(String customerName) {
+        if (!isSharded()) {
+            throw new IllegalStateException("Sharding is not enabled");
+        }
+        return idGenerator.nextId(shardForCustomer(customerName));
+    }
+
+    /**
+     * Runs the action on the calling thread with its connections routed to the given shard.
+     */
+    public <T> T onShard(int shard, Supplier<T> action) {
+        return isSharded() ? ShardContext.call(shard, action) : action.get();
+    }
+
+    /**
+     * Runs the task once per shard, in parallel, and returns the results in shard order.
+     * The task must not itself fan out to all shards.
+     */
+    public <T> List<T> onEachShard(IntFunction<T> task) {
+        if (!isSharded()) {
+            return Collections.singletonList(task.apply(0));
+        }
+        List<Future<T>> futures = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            int target = shard;
+            futures.add(executor.submit(() -> ShardContext.call(target, () -> task.apply(target))));
+        }
+        List<T> results = new ArrayList<>(shardCount);
+        try {
+            for (Future<T> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for shards", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Shard query failed", ex.getCause());
+        }
+        return results;
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
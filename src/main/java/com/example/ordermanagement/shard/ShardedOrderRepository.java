@@ -0,0 +1,223 @@
+package com.example.ordermanagement.shard;
+
+import com.example.ordermanagement.entity.Order;
+import com.example.ordermanagement.repository.OrderRepository;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Shard-aware front for {@link OrderRepository}. Single-order operations run on the shard encoded in the order ID;
+ * list, search and full scans query every shard in parallel and merge the results.
+ * With sharding off, every method is a plain call to the repository.
+ */
+@Component
+public class ShardedOrderRepository {
+
+    // Most IDs bound into one IN list; keeps statements well below driver parameter limits
+    static final int IN_LIST_CHUNK_SIZE = 500;
+
+    private final OrderRepository orderRepository;
+    private final ShardRouter shardRouter;
+
+    @Autowired
+    public ShardedOrderRepository(OrderRepository orderRepository, ShardRouter shardRouter) {
+        this.orderRepository = orderRepository;
+        this.shardRouter = shardRouter;
+    }
+
+    /**
+     * Saves the order on its shard. A new order on a sharded store first gets an ID that places it on a shard.
+     */
+    public Order save(Order order) {
+        if (shardRouter.isSharded() && order.getId() == null) {
+            order.setId(shardRouter.newId(order.getCustomerName()));
+        }
+        return shardRouter.onShard(shardRouter.shardOf(order.getId()), () -> orderRepository.save(order));
+    }
+
+    /**
+     * Saves new orders, one transaction per shard involved.
+     */
+    public List<Order> saveAll(List<Order> orders) {
+        if (!shardRouter.isSharded()) {
+            return orderRepository.saveAll(orders);
+        }
+        for (Order order : orders) {
+            if (order.getId() == null) {
+                order.setId(shardRouter.newId(order.getCustomerName()));
+            }
+        }
+        Map<Integer, List<Order>> byShard = orders.stream()
+                .collect(Collectors.groupingBy(order -> shardRouter.shardOf(order.getId())));
+        List<Order> saved = new ArrayList<>(orders.size());
+        for (List<Order> shardOrders : shardRouter.onEachShard(shard ->
+                byShard.containsKey(shard) ? orderRepository.saveAll(byShard.get(shard)) : List.<Order>of())) {
+            saved.addAll(shardOrders);
+        }
+        return saved;
+    }
+
+    public Optional<Order> findById(Long id) {
+        return shardRouter.onShard(shardRouter.shardOf(id), () -> orderRepository.findById(id));
+    }
+
+    /**
+     * Loads the orders with the given IDs, in no particular order; IDs that do not exist are skipped.
+     * Each shard involved gets its IDs in IN-list queries of at most {@link #IN_LIST_CHUNK_SIZE}.
+     */
+    public List<Order> findAllById(Collection<Long> ids) {
+        if (!shardRouter.isSharded()) {
+            return findAllByIdInChunks(List.copyOf(ids));
+        }
+        Map<Integer, List<Long>> byShard = ids.stream().collect(Collectors.groupingBy(shardRouter::shardOf));
+        List<Order> found = new ArrayList<>(ids.size());
+        for (List<Order> shardOrders : shardRouter.onEachShard(shard ->
+                byShard.containsKey(shard) ? findAllByIdInChunks(byShard.get(shard)) : List.<Order>of())) {
+            found.addAll(shardOrders);
+        }
+        return found;
+    }
+
+    private List<Order> findAllByIdInChunks(List<Long> ids) {
+        List<Order> found = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += IN_LIST_CHUNK_SIZE) {
+            found.addAll(orderRepository.findAllById(ids.subList(from, Math.min(ids.size(), from + IN_LIST_CHUNK_SIZE))));
+        }
+        return found;
+    }
+
+    /**
+     * Writes the fields set on the patch to one order at the expected version; see {@link OrderRepository#patch}.
+     *
+     * @return 1 if the order was updated, 0 if it does not exist or is at another version.
+     */
+    public int patch(Long id, long expectedVersion, Order patch) {
+        return shardRouter.onShard(shardRouter.shardOf(id), () -> orderRepository.patch(id, expectedVersion, patch));
+    }
+
+    /**
+     * Patches several orders, with one UPDATE statement and transaction per shard involved. On a conflict (an
+     * order deleted or at another version) its shard's orders are left unchanged, but the other shards are still
+     * patched and stay committed, so the caller must report which orders were patched and which were not.
+     *
+     * @param expectedVersions The version the patch applies to, by order ID.
+     * @return The IDs of the orders that were patched: all of them, none after a conflict on a single database, or
+     * the orders of the shards without a conflict.
+     */
+    public Set<Long> patchAll(Map<Long, Long> expectedVersions, Order patch) {
+        Map<Integer, Map<Long, Long>> byShard = new TreeMap<>();
+        expectedVersions.forEach((id, version) ->
+                byShard.computeIfAbsent(shardRouter.shardOf(id), shard -> new HashMap<>()).put(id, version));
+        Set<Long> patched = new HashSet<>(expectedVersions.size());
+        for (Map.Entry<Integer, Map<Long, Long>> shard : byShard.entrySet()) {
+            try {
+                shardRouter.onShard(shard.getKey(), () -> {
+                    orderRepository.patchAll(shard.getValue(), patch);
+                    return null;
+                });
+            } catch (ObjectOptimisticLockingFailureException ex) {
+                continue;
+            }
+            patched.addAll(shard.getValue().keySet());
+        }
+        return patched;
+    }
+
+    public void delete(Order order) {
+        shardRouter.onShard(shardRouter.shardOf(order.getId()), () -> {
+            orderRepository.delete(order);
+            return null;
+        });
+    }
+
+    /**
+     * Keyset page across all shards: each shard returns its next page after the ID, and the smallest IDs win.
+     */
+    public List<Order> findPageAfter(long afterId, int pageSize) {
+        PageRequest page = PageRequest.ofSize(pageSize);
+        if (!shardRouter.isSharded()) {
+            return orderRepository.findByIdGreaterThanOrderByIdAsc(afterId, page);
+        }
+        return shardRouter.onEachShard(shard -> orderRepository.findByIdGreaterThanOrderByIdAsc(afterId, page)).stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparing(Order::getId))
+                .limit(pageSize)
+                .toList();
+    }
+
+    /**
+     * Search across all shards. Each shard returns its first (offset + page size) matches in the requested order;
+     * they are merged and the requested page is cut from the result. Deep pages cost more on every shard.
+     */
+    public Page<Order> findAll(Specification<Order> specification, Pageable pageable) {
+        if (!shardRouter.isSharded()) {
+            return orderRepository.findAll(specification, pageable);
+        }
+        Pageable head = pageable.isPaged()
+                ? PageRequest.of(0, (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize()), pageable.getSort())
+                : pageable;
+        List<Page<Order>> pages = shardRouter.onEachShard(shard -> orderRepository.findAll(specification, head));
+
+        long total = 0;
+        List<Order> merged = new ArrayList<>();
+        for (Page<Order> page : pages) {
+            total += page.getTotalElements();
+            merged.addAll(page.getContent());
+        }
+        merged.sort(comparator(pageable.getSort()));
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(merged, pageable, total);
+        }
+        int from = (int) Math.min(merged.size(), pageable.getOffset());
+        int to = Math.min(merged.size(), from + pageable.getPageSize());
+        return new PageImpl<>(merged.subList(from, to), pageable, total);
+    }
+
+    /**
+     * Streams every order, one shard after the other. Orders are in ID order within each shard only.
+     */
+    public void forEachOrder(Consumer<Order> action) {
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            shardRouter.onShard(shard, () -> {
+                orderRepository.forEachOrder(action);
+                return null;
+            });
+        }
+    }
+
+    // Same ordering the database applies per shard, with the ID as tie-breaker so merged pages are stable
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Comparator<Order> comparator(Sort sort) {
+        Comparator<Order> comparator = (a, b) -> 0;
+        for (Sort.Order property : sort) {
+            Comparator<Comparable> values = property.isAscending()
+                    ? Comparator.<Comparable>naturalOrder() : Comparator.<Comparable>reverseOrder();
+            Comparator<Order> byProperty = Comparator.comparing(
+                    order -> (Comparable) new BeanWrapperImpl(order).getPropertyValue(property.getProperty()),
+                    Comparator.nullsLast(values));
+            comparator = comparator.thenComparing(byProperty);
+        }
+        return comparator.thenComparing(Order::getId);
+    }
+}
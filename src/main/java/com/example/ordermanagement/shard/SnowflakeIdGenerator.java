@@ -0,0 +1,66 @@
+package com.example.ordermanagement.shard;
+
+/**
+ * Globally unique, roughly time-ordered 63-bit IDs that need no coordination between application instances
+ * or shards. Layout, from the most significant bit:
+ * <pre>
+ * 41 bits  milliseconds since 2023-01-01T00:00:00Z
+ *  6 bits  shard the row lives on (up to 64 shards)
+ *  4 bits  node, i.e. application instance (up to 16)
+ * 12 bits  sequence within the millisecond (4096 IDs per node per millisecond)
+ * </pre>
+ * The shard is part of the ID, so any ID can be routed without a lookup.
+ */
+public class SnowflakeIdGenerator {
+
+    static final long EPOCH_MILLIS = 1672531200000L;
+
+    static final int SEQUENCE_BITS = 12;
+    static final int NODE_BITS = 4;
+    static final int SHARD_BITS = 6;
+
+    public static final int MAX_SHARDS = 1 << SHARD_BITS;
+    public static final int MAX_NODES = 1 << NODE_BITS;
+
+    private static final int NODE_SHIFT = SEQUENCE_BITS;
+    private static final int SHARD_SHIFT = SEQUENCE_BITS + NODE_BITS;
+    private static final int TIMESTAMP_SHIFT = SEQUENCE_BITS + NODE_BITS + SHARD_BITS;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long node;
+    private long lastMillis = -1;
+    private long sequence;
+
+    public SnowflakeIdGenerator(int node) {
+        if (node < 0 || node >= MAX_NODES) {
+            throw new IllegalArgumentException("Node must be between 0 and " + (MAX_NODES - 1) + ": " + node);
+        }
+        this.node = node;
+    }
+
+    public synchronized long nextId(int shard) {
+        if (shard < 0 || shard >= MAX_SHARDS) {
+            throw new IllegalArgumentException("Shard must be between 0 and " + (MAX_SHARDS - 1) + ": " + shard);
+        }
+        // A clock that moves backwards keeps using the last timestamp rather than risking duplicates
+        long now = Math.max(System.currentTimeMillis(), lastMillis);
+        if (now == lastMillis) {
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) {
+                // Sequence exhausted for this millisecond; move on to the next one
+                now = lastMillis + 1;
+                while (System.currentTimeMillis() < now) {
+                    Thread.onSpinWait();
+                }
+            }
+        } else {
+            sequence = 0;
+        }
+        lastMillis = now;
+        return ((now - EPOCH_MILLIS) << TIMESTAMP_SHIFT) | ((long) shard << SHARD_SHIFT) | (node << NODE_SHIFT) | sequence;
+    }
+
+    public static int shardOf(long id) {
+        return (int) ((id >>> SHARD_SHIFT) & (MAX_SHARDS - 1));
+    }
+}
@@ -0,0 +1,305 @@
+package com.example.ordermanagement.stats;
+
+import com.example.ordermanagement.dto.CustomerRevenue;
+import com.example.ordermanagement.dto.DailyRevenue;
+import com.example.ordermanagement.dto.OrderStatsResponse;
+import com.example.ordermanagement.entity.Order;
+import com.example.ordermanagement.event.OrderChangedEvent;
+import com.example.ordermanagement.repository.OrderAggregateRow;
+import com.example.ordermanagement.repository.OrderRepository;
+import com.example.ordermanagement.shard.ShardRouter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Order count and revenue per day and per customer, kept up to date from {@link OrderChangedEvent}s
+ * instead of being recomputed from the order table on every read.
+ * <p>
+ * Each event applies a delta: the previous state of the order is subtracted and the current one added.
+ * {@link #rebuild()} recomputes everything from the table, splitting each shard into ID ranges that are aggregated
+ * in parallel. It runs at startup and can be triggered again to correct any drift.
+ * <p>
+ * Events keep being applied while a rebuild scans, and are also remembered per order. Each range is read in a
+ * repeatable-read transaction, so at the end the same snapshot tells exactly which state of each changed order the
+ * scan counted; that state is replaced by the latest one before the new totals are swapped in. Writers only wait
+ * for that last step, which reads just the changed orders.
+ */
+@Component
+public class OrderStatistics {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderStatistics.class);
+
+    private static final int LOOKUP_CHUNK_SIZE = 1000;
+
+    private final OrderRepository orderRepository;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate snapshotTransaction;
+    private final int rebuildParallelism;
+
+    // Deltas take the read lock (they can run concurrently); a rebuild takes the write lock to swap in fresh totals
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile Aggregates aggregates = new Aggregates();
+    // Latest change per order while a rebuild is scanning, otherwise null
+    private volatile Map<Long, OrderChangedEvent> changedDuringRebuild;
+
+    @Autowired
+    public OrderStatistics(OrderRepository orderRepository,
+                           ShardRouter shardRouter,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${orders.stats.rebuild-parallelism:4}") int rebuildParallelism) {
+        this.orderRepository = orderRepository;
+        this.shardRouter = shardRouter;
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotTransaction.setReadOnly(true);
+        this.rebuildParallelism = Math.max(1, rebuildParallelism);
+    }
+
+    @EventListener
+    public void onOrderChanged(OrderChangedEvent event) {
+        lock.readLock().lock();
+        try {
+            Aggregates current = aggregates;
+            if (event.getPrevious() != null) {
+                current.add(event.getPrevious(), -1);
+            }
+            if (event.getCurrent() != null) {
+                current.add(event.getCurrent(), 1);
+            }
+            Map<Long, OrderChangedEvent> changed = changedDuringRebuild;
+            if (changed != null) {
+                changed.merge(event.getOrderId(), event, (known, next) -> resultVersion(next) > resultVersion(known) ? next : known);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Recomputes all totals from the order table, aggregating ID ranges in parallel.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long started = System.nanoTime();
+        Aggregates rebuilt = new Aggregates();
+        Map<Long, OrderChangedEvent> changed = new ConcurrentHashMap<>();
+        changedDuringRebuild = changed;
+
+        List<IdRange> ranges = new ArrayList<>();
+        for (int shard = 0; shard < shardRouter.getShardCount(); shard++) {
+            ranges.addAll(split(shard, shardRouter.onShard(shard, orderRepository::findMinId),
+                    shardRouter.onShard(shard, orderRepository::findMaxId)));
+        }
+
+        // One thread per range, each holding its snapshot open until the changed orders have been read from it
+        CountDownLatch scanned = new CountDownLatch(ranges.size());
+        CountDownLatch lookup = new CountDownLatch(1);
+        Map<Long, OrderChangedEvent> frozen = new HashMap<>();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, ranges.size()), task -> {
+            Thread thread = new Thread(task, "order-stats-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<List<Order>>> counted = new ArrayList<>();
+            for (IdRange range : ranges) {
+                counted.add(executor.submit(() -> shardRouter.onShard(range.shard(), () -> snapshotTransaction.execute(status -> {
+                    try {
+                        for (OrderAggregateRow row : orderRepository.aggregateByDateAndCustomer(range.fromId(), range.toId())) {
+                            rebuilt.add(row);
+                        }
+                    } finally {
+                        scanned.countDown();
+                    }
+                    awaitUninterruptibly(lookup);
+                    List<Long> ids = frozen.keySet().stream().filter(range::contains).toList();
+                    List<Order> orders = new ArrayList<>();
+                    for (int from = 0; from < ids.size(); from += LOOKUP_CHUNK_SIZE) {
+                        orders.addAll(orderRepository.findAllById(ids.subList(from, Math.min(ids.size(), from + LOOKUP_CHUNK_SIZE))));
+                    }
+                    return orders;
+                }))));
+            }
+            // Writers go on while the ranges are scanned
+            awaitUninterruptibly(scanned);
+
+            lock.writeLock().lock();
+            try {
+                changedDuringRebuild = null;
+                frozen.putAll(changed);
+                lookup.countDown();
+                // The state each changed order had in its range's snapshot is what the scan counted; orders outside
+                // every range were not counted at all
+                for (Future<List<Order>> range : counted) {
+                    for (Order order : range.get()) {
+                        rebuilt.add(order, -1);
+                    }
+                }
+                for (OrderChangedEvent event : frozen.values()) {
+                    if (event.getCurrent() != null) {
+                        rebuilt.add(event.getCurrent(), 1);
+                    }
+                }
+                aggregates = rebuilt;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("Could not rebuild the order statistics", ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while rebuilding the order statistics", ex);
+        } finally {
+            changedDuringRebuild = null;
+            lookup.countDown();
+            executor.shutdown();
+        }
+        log.info("Rebuilt order statistics in {} ms ({} orders changed meanwhile)",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), frozen.size());
+    }
+
+    // Up to rebuildParallelism ranges of about equal ID span covering [minId, maxId]
+    private List<IdRange> split(int shard, Long minId, Long maxId) {
+        List<IdRange> ranges = new ArrayList<>();
+        if (minId == null || maxId == null) {
+            return ranges;
+        }
+        long span = maxId - minId + 1;
+        int partitions = (int) Math.min(rebuildParallelism, span);
+        long step = (span + partitions - 1) / partitions;
+        for (long fromId = minId; fromId <= maxId; fromId += step) {
+            ranges.add(new IdRange(shard, fromId, Math.min(maxId, fromId + step - 1)));
+        }
+        return ranges;
+    }
+
+    // Orders only move to higher versions; a delete comes after the last version
+    private static long resultVersion(OrderChangedEvent event) {
+        Order order = event.getCurrent() != null ? event.getCurrent() : event.getPrevious();
+        long version = order.getVersion() == null ? 0L : order.getVersion();
+        return event.getCurrent() != null ? version : version + 1;
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                latch.await();
+                break;
+            } catch (InterruptedException ex) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Reads the current totals. Cost depends on the number of days and customers, not on the number of orders.
+     *
+     * @param fromDate     First day to include in the daily breakdown, or null for no lower bound.
+     * @param toDate       Last day to include in the daily breakdown, or null for no upper bound.
+     * @param topCustomers How many customers to include, highest revenue first.
+     * @return Overall totals, daily revenue in date order and the top customers.
+     */
+    public OrderStatsResponse getStats(LocalDate fromDate, LocalDate toDate, int topCustomers) {
+        Aggregates current = aggregates;
+
+        NavigableMap<LocalDate, Totals> days = current.byDate;
+        if (fromDate != null) {
+            days = days.tailMap(fromDate, true);
+        }
+        if (toDate != null) {
+            days = days.headMap(toDate, true);
+        }
+        List<DailyRevenue> daily = new ArrayList<>();
+        for (Map.Entry<LocalDate, Totals> day : days.entrySet()) {
+            long count = day.getValue().count.sum();
+            if (count > 0) {
+                daily.add(new DailyRevenue(day.getKey(), count, day.getValue().revenue.sum()));
+            }
+        }
+
+        List<CustomerRevenue> customers = current.byCustomer.entrySet().stream()
+                .map(customer -> new CustomerRevenue(customer.getKey(),
+                        customer.getValue().count.sum(), customer.getValue().revenue.sum()))
+                .filter(customer -> customer.getOrderCount() > 0)
+                .sorted(Comparator.comparingDouble(CustomerRevenue::getRevenue).reversed())
+                .limit(Math.max(0, topCustomers))
+                .toList();
+
+        return new OrderStatsResponse(current.overall.count.sum(), current.overall.revenue.sum(), daily, customers);
+    }
+
+    private record IdRange(int shard, long fromId, long toId) {
+
+        boolean contains(Long id) {
+            return id != null && id >= fromId && id <= toId;
+        }
+    }
+
+    private static final class Totals {
+        final LongAdder count = new LongAdder();
+        final DoubleAdder revenue = new DoubleAdder();
+
+        void add(long orders, double amount) {
+            count.add(orders);
+            revenue.add(amount);
+        }
+    }
+
+    private static final class Aggregates {
+        final ConcurrentSkipListMap<LocalDate, Totals> byDate = new ConcurrentSkipListMap<>();
+        final ConcurrentHashMap<String, Totals> byCustomer = new ConcurrentHashMap<>();
+        final Totals overall = new Totals();
+
+        void add(Order order, int sign) {
+            double amount = order.getTotal() == null ? 0.0 : sign * order.getTotal();
+            add(order.getOrderDate(), order.getCustomerName(), sign, amount);
+        }
+
+        void add(OrderAggregateRow row) {
+            add(row.getOrderDate(), row.getCustomerName(), row.getOrderCount(),
+                    row.getRevenue() == null ? 0.0 : row.getRevenue());
+        }
+
+        private void add(LocalDate orderDate, String customerName, long orders, double amount) {
+            overall.add(orders, amount);
+            if (orderDate != null) {
+                byDate.computeIfAbsent(orderDate, date -> new Totals()).add(orders, amount);
+            }
+            if (customerName != null) {
+                byCustomer.computeIfAbsent(customerName, name -> new Totals()).add(orders, amount);
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.ordermanagement.validation;
+
+import com.example.ordermanagement.entity.Order;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hand-written equivalent of the Bean Validation constraints on {@link Order}, for the order creation hot path.
+ * There is no reflection or metadata lookup, and a valid order allocates nothing: the checks only read fields,
+ * and the returned list is the shared empty list. Messages are built at compile time and match the annotations,
+ * in the "field: message" form used by the error responses.
+ */
+public final class OrderValidator {
+
+    public static final String CUSTOMER_NAME_BLANK = "customerName: Customer name must not be blank";
+    public static final String SHIPPING_ADDRESS_BLANK = "shippingAddress: Shipping address must not be blank";
+    public static final String TOTAL_NULL = "total: Total must not be null";
+    public static final String TOTAL_NOT_POSITIVE = "total: Total must be a positive number";
+    public static final String PATCH_EMPTY = "At least one of customerName, shippingAddress and total must be set";
+
+    private OrderValidator() {
+    }
+
+    /**
+     * @param order The order to check.
+     * @return An empty list if the order is valid, otherwise one message per failed constraint.
+     */
+    public static List<String> validate(Order order) {
+        String customerNameError = isBlank(order.getCustomerName()) ? CUSTOMER_NAME_BLANK : null;
+        String shippingAddressError = isBlank(order.getShippingAddress()) ? SHIPPING_ADDRESS_BLANK : null;
+        String totalError = order.getTotal() == null ? TOTAL_NULL
+                : order.getTotal() > 0 ? null : TOTAL_NOT_POSITIVE;
+
+        if (customerNameError == null && shippingAddressError == null && totalError == null) {
+            return List.of();
+        }
+
+        // Failure path only: collect the messages
+        List<String> errors = new ArrayList<>(3);
+        if (customerNameError != null) {
+            errors.add(customerNameError);
+        }
+        if (shippingAddressError != null) {
+            errors.add(shippingAddressError);
+        }
+        if (totalError != null) {
+            errors.add(totalError);
+        }
+        return errors;
+    }
+
+    /**
+     * Checks a partial update, where a null field means "leave unchanged": only the fields that are set must
+     * satisfy their constraints, and at least one must be set.
+     *
+     * @param patch The fields to change.
+     * @return An empty list if the patch is valid, otherwise one message per failed constraint.
+     */
+    public static List<String> validatePatch(Order patch) {
+        if (patch.getCustomerName() == null && patch.getShippingAddress() == null && patch.getTotal() == null) {
+            return List.of(PATCH_EMPTY);
+        }
+        List<String> errors = new ArrayList<>(3);
+        if (patch.getCustomerName() != null && patch.getCustomerName().isBlank()) {
+            errors.add(CUSTOMER_NAME_BLANK);
+        }
+        if (patch.getShippingAddress() != null && patch.getShippingAddress().isBlank()) {
+            errors.add(SHIPPING_ADDRESS_BLANK);
+        }
+        if (patch.getTotal() != null && patch.getTotal() <= 0) {
+            errors.add(TOTAL_NOT_POSITIVE);
+        }
+        return errors;
+    }
+
+    // Same rule as @NotBlank: null, empty or whitespace only
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -0,0 +1,314 @@
+package com.example.ordermanagement.writebehind;
+
+import com.example.ordermanagement.entity.Order;
+import com.example.ordermanagement.event.OrderChangedEvent;
+import com.example.ordermanagement.exception.PreconditionFailedException;
+import com.example.ordermanagement.exception.ServiceUnavailableException;
+import com.example.ordermanagement.repository.OrderIdAllocator;
+import com.example.ordermanagement.repository.OrderJdbcWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-behind path for order creates and updates, switched on with orders.write-behind.enabled=true.
+ * <p>
+ * {@link #accept} assigns the ID, appends the order to a local {@link WriteBehindLog} (forced to disk) and
+ * queues it; the caller can answer right away. A single flusher thread drains the queue in batches and upserts
+ * them through {@link OrderJdbcWriter}, retrying until the database accepts them. {@link OrderChangedEvent}s
+ * are published only once a batch is committed, so listeners still see committed state.
+ * <p>
+ * The queue is bounded: when it is full, {@link #accept} waits up to the enqueue timeout and then fails with
+ * 503. Orders waiting in the queue are visible through {@link #findPending}. Changes still in the log at startup
+ * (the previous run stopped before flushing them) are written to the database and announced as the creates and
+ * updates they were before the application serves requests.
+ */
+@Component
+@ConditionalOnProperty(name = "orders.write-behind.enabled", havingValue = "true")
+public class OrderWriteBehindBuffer implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderWriteBehindBuffer.class);
+
+    private final OrderIdAllocator idAllocator;
+    private final OrderJdbcWriter jdbcWriter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final WriteBehindLog writeBehindLog;
+    // What the log held when it was opened: changes accepted by a previous run and never flushed
+    private final List<OrderChangedEvent> unflushed;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long enqueueTimeoutNanos;
+    private final long retryBackoffMillis;
+
+    // Free queue slots; taken before the log append so a rejected order never reaches the log
+    private final Semaphore capacity;
+    private final BlockingQueue<OrderChangedEvent> queue;
+    // Latest accepted state of every order not yet flushed, for read-your-writes
+    private final Map<Long, Order> pending = new ConcurrentHashMap<>();
+    // Serializes log appends and truncation; true while the log holds entries that may not be flushed yet
+    private final Object logLock = new Object();
+    private boolean logDirty;
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    @Autowired
+    public OrderWriteBehindBuffer(OrderIdAllocator idAllocator,
+                                  OrderJdbcWriter jdbcWriter,
+                                  ApplicationEventPublisher eventPublisher,
+                                  ObjectMapper objectMapper,
+                                  @Value("${orders.write-behind.log-file:data/write-behind.log}") Path logFile,
+                                  @Value("${orders.write-behind.capacity:10000}") int capacity,
+                                  @Value("${orders.write-behind.batch-size:500}") int batchSize,
+                                  @Value("${orders.write-behind.flush-interval:50ms}") Duration flushInterval,
+                                  @Value("${orders.write-behind.enqueue-timeout:100ms}") Duration enqueueTimeout,
+                                  @Value("${orders.write-behind.retry-backoff:1s}") Duration retryBackoff) throws IOException {
+        this.idAllocator = idAllocator;
+        this.jdbcWriter = jdbcWriter;
+        this.eventPublisher = eventPublisher;
+        this.writeBehindLog = new WriteBehindLog(logFile, objectMapper);
+        this.unflushed = writeBehindLog.readAll();
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.enqueueTimeoutNanos = enqueueTimeout.toNanos();
+        this.retryBackoffMillis = retryBackoff.toMillis();
+        this.capacity = new Semaphore(capacity);
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Accepts a new order. On return it has an ID, is durable in the local log and is queued for the database.
+     *
+     * @param order A validated order without an ID.
+     * @return The same order, with its ID set.
+     * @throws ServiceUnavailableException if the queue stays full for longer than the enqueue timeout.
+     */
+    public Order acceptCreate(Order order) {
+        acquireSlot();
+        order.setId(idAllocator.nextId(order));
+        order.setVersion(0L);
+        enqueue(OrderChangedEvent.created(order), null);
+        return order;
+    }
+
+    /**
+     * Accepts a change to an existing order. On return it is durable in the local log and queued for the database.
+     * The change gets the version after the one of {@code previous}.
+     *
+     * @param previous The order as currently stored or pending.
+     * @param current  The order after the change, with the same ID.
+     * @throws PreconditionFailedException if another change to the order was accepted after {@code previous} was read.
+     * @throws ServiceUnavailableException if the queue stays full for longer than the enqueue timeout.
+     */
+    public void acceptUpdate(Order previous, Order current) {
+        long previousVersion = previous.getVersion() == null ? 0L : previous.getVersion();
+        current.setVersion(previousVersion + 1);
+        acquireSlot();
+        enqueue(OrderChangedEvent.updated(previous, current), previousVersion);
+    }
+
+    /**
+     * @return The latest accepted state of an order that is not in the database yet, or empty.
+     */
+    public Optional<Order> findPending(Long id) {
+        return Optional.ofNullable(pending.get(id));
+    }
+
+    /**
+     * @return Number of accepted orders waiting to be flushed.
+     */
+    public int pendingCount() {
+        return queue.size();
+    }
+
+    private void acquireSlot() {
+        boolean acquired;
+        try {
+            acquired = capacity.tryAcquire(enqueueTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            throw new ServiceUnavailableException("Too many orders waiting to be written, please retry later");
+        }
+    }
+
+    private void enqueue(OrderChangedEvent event, Long expectedVersion) {
+        Order order = event.getCurrent();
+        long position;
+        // Same lock for the append and the queue insert, so log order and flush order agree
+        synchronized (logLock) {
+            // Queued updates are upserted blindly, so the version check against queued state happens here
+            Order queued = pending.get(order.getId());
+            if (expectedVersion != null && queued != null && !expectedVersion.equals(queued.getVersion())) {
+                capacity.release();
+                throw new PreconditionFailedException("Order " + order.getId() + " was modified concurrently, reload it and retry");
+            }
+            try {
+                position = writeBehindLog.append(event);
+            } catch (IOException ex) {
+                capacity.release();
+                throw new UncheckedIOException("Could not append order to the write-behind log", ex);
+            }
+            logDirty = true;
+            pending.put(order.getId(), order);
+            queue.add(event);
+        }
+        // Outside the lock, so one force covers every request that appended meanwhile
+        try {
+            writeBehindLog.awaitDurable(position);
+        } catch (IOException ex) {
+            // Already queued, so the slot is released by the flusher and the change may still reach the database
+            throw new UncheckedIOException("Could not force the write-behind log to disk", ex);
+        }
+    }
+
+    private void runFlusher() {
+        List<OrderChangedEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                OrderChangedEvent first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    truncateLogIfIdle();
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException ex) {
+                // stop() interrupts only to cut short a retry back-off; the loop drains what is left
+            } finally {
+                batch.clear();
+            }
+        }
+        truncateLogIfIdle();
+    }
+
+    private void flush(List<OrderChangedEvent> batch) throws InterruptedException {
+        List<Order> orders = new ArrayList<>(batch.size());
+        for (OrderChangedEvent event : batch) {
+            orders.add(event.getCurrent());
+        }
+        while (true) {
+            try {
+                jdbcWriter.upsertAll(orders);
+                break;
+            } catch (DataAccessException ex) {
+                // The batch is still in the log; keep it queued and try again rather than drop accepted orders
+                log.warn("Write-behind flush of {} orders failed, retrying in {} ms", orders.size(), retryBackoffMillis, ex);
+                if (!running) {
+                    log.error("Stopping with {} unflushed orders; they will be replayed from the log on next start",
+                            orders.size() + queue.size());
+                    queue.clear();
+                    throw new InterruptedException();
+                }
+                Thread.sleep(retryBackoffMillis);
+            }
+        }
+        for (OrderChangedEvent event : batch) {
+            Order order = event.getCurrent();
+            // A later update of the same order may already be pending; leave that one visible
+            pending.remove(order.getId(), order);
+            eventPublisher.publishEvent(event);
+        }
+        capacity.release(batch.size());
+    }
+
+    // Once everything in the log has been flushed, empty it so it does not grow without bound
+    private void truncateLogIfIdle() {
+        synchronized (logLock) {
+            if (!logDirty || !pending.isEmpty()) {
+                return;
+            }
+            try {
+                writeBehindLog.truncate();
+                logDirty = false;
+            } catch (IOException ex) {
+                log.warn("Could not truncate the write-behind log", ex);
+            }
+        }
+    }
+
+    // Changes accepted by a previous run but never flushed; upserts make replaying already-flushed ones harmless.
+    // Each is announced as the change it was, so listeners such as the journal and the change stream see it.
+    // The log is only emptied once nothing accepted by this run is pending either.
+    private void replayLog() {
+        if (!unflushed.isEmpty()) {
+            log.info("Replaying {} order changes from the write-behind log", unflushed.size());
+            for (int from = 0; from < unflushed.size(); from += batchSize) {
+                List<OrderChangedEvent> batch = unflushed.subList(from, Math.min(unflushed.size(), from + batchSize));
+                List<Order> orders = new ArrayList<>(batch.size());
+                for (OrderChangedEvent event : batch) {
+                    orders.add(event.getCurrent());
+                }
+                jdbcWriter.upsertAll(orders);
+                batch.forEach(eventPublisher::publishEvent);
+            }
+            unflushed.clear();
+        }
+        synchronized (logLock) {
+            logDirty = true;
+        }
+        truncateLogIfIdle();
+    }
+
+    @Override
+    public void start() {
+        replayLog();
+        running = true;
+        flusher = new Thread(this::runFlusher, "order-write-behind");
+        flusher.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (flusher == null) {
+            return;
+        }
+        flusher.interrupt();
+        try {
+            flusher.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            writeBehindLog.close();
+        } catch (IOException ex) {
+            log.warn("Could not close the write-behind log", ex);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Start before and stop after the web server, so no request is accepted once the flusher is gone
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 2048;
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.ordermanagement.writebehind;
+
+import com.example.ordermanagement.entity.Order;
+import com.example.ordermanagement.event.OrderChangedEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Local append-only file holding the changes accepted by the write-behind buffer but not yet in the database,
+ * one JSON document per line: the change type, the order before an update and the order after the change.
+ * <p>
+ * Appends and truncation are not thread-safe: callers serialize them. Forcing is separate from appending so callers
+ * can wait for it outside their lock: the first waiter forces the file for every append made so far, and the others
+ * wait for it instead of issuing their own (group commit).
+ */
+class WriteBehindLog implements Closeable {
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader reader;
+    private final FileChannel channel;
+
+    // Bytes appended since the log was opened, and how many of them are known to be on disk
+    private long written;
+    private long durable;
+    // True while one waiter forces the file on behalf of the others
+    private boolean forcing;
+    private final Object commitMonitor = new Object();
+
+    WriteBehindLog(Path path, ObjectMapper objectMapper) throws IOException {
+        this.path = path;
+        this.objectMapper = objectMapper;
+        this.reader = objectMapper.readerFor(Order.class);
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * @return Position to pass to {@link #awaitDurable} before the change is acknowledged.
+     */
+    long append(OrderChangedEvent event) throws IOException {
+        ObjectNode entry = objectMapper.createObjectNode();
+        entry.put("type", event.getType().name());
+        if (event.getPrevious() != null) {
+            entry.set("previous", objectMapper.valueToTree(event.getPrevious()));
+        }
+        entry.set("order", objectMapper.valueToTree(event.getCurrent()));
+        byte[] json = objectMapper.writeValueAsBytes(entry);
+        ByteBuffer line = ByteBuffer.allocate(json.length + 1).put(json).put((byte) '\n').flip();
+        int length = line.remaining();
+        while (line.hasRemaining()) {
+            channel.write(line);
+        }
+        synchronized (commitMonitor) {
+            written += length;
+            return written;
+        }
+    }
+
+    /**
+     * Returns once everything up to the position is on disk, forcing the file unless another caller already is.
+     */
+    void awaitDurable(long position) throws IOException {
+        long target;
+        synchronized (commitMonitor) {
+            while (durable < position && forcing) {
+                try {
+                    commitMonitor.wait();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while waiting for the write-behind log to be flushed", ex);
+                }
+            }
+            if (durable >= position) {
+                return;
+            }
+            forcing = true;
+            target = written;
+        }
+        boolean forced = false;
+        try {
+            channel.force(false);
+            forced = true;
+        } finally {
+            synchronized (commitMonitor) {
+                forcing = false;
+                if (forced && target > durable) {
+                    durable = target;
+                }
+                commitMonitor.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * @return Every change in the log, in append order. A torn last line (crash mid-append) is skipped.
+     */
+    List<OrderChangedEvent> readAll() throws IOException {
+        List<OrderChangedEvent> events = new ArrayList<>();
+        try (BufferedReader lines = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = lines.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    events.add(toEvent(objectMapper.readTree(line)));
+                } catch (IOException ex) {
+                    // Only the last line can be incomplete; it was never acknowledged to the client
+                    break;
+                }
+            }
+        }
+        return events;
+    }
+
+    private OrderChangedEvent toEvent(JsonNode entry) throws IOException {
+        // Logs written before the change type was recorded hold one bare order per line, always a create
+        if (!entry.has("type")) {
+            return OrderChangedEvent.created(reader.readValue(entry));
+        }
+        Order order = reader.readValue(entry.get("order"));
+        if (OrderChangedEvent.Type.valueOf(entry.get("type").asText()) == OrderChangedEvent.Type.UPDATED) {
+            return OrderChangedEvent.updated(reader.readValue(entry.get("previous")), order);
+        }
+        return OrderChangedEvent.created(order);
+    }
+
+    // Only called once every entry is in the database, so waiters on earlier appends need no force of their own
+    void truncate() throws IOException {
+        channel.truncate(0);
+        channel.force(false);
+        synchronized (commitMonitor) {
+            durable = written;
+            commitMonitor.notifyAll();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
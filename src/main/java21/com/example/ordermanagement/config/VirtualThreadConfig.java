@@ -0,0 +1,33 @@
+package com.example.ordermanagement.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Serves requests on virtual threads instead of Tomcat's platform-thread pool.
+ * Only compiled with the "java21" Maven profile, and only active with orders.virtual-threads.enabled=true.
+ * Database access is still capped by {@link DatabaseBulkheadConfig}, which is switched on by the same property.
+ */
+@Configuration
+@ConditionalOnProperty(name = "orders.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+
+    // One virtual thread per request on the embedded Tomcat connector
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    // Async MVC work (e.g. streamed GET /orders responses) also runs on virtual threads
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(Executors.newVirtualThreadPerTaskExecutor());
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.ordermanagement;
+
+import com.example.ordermanagement.controller.ReactiveOrderController;
+import com.example.ordermanagement.exception.OrderExceptionHandler;
+import com.example.ordermanagement.repository.ReactiveOrderRepository;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.r2dbc.connection.init.ConnectionFactoryInitializer;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+
+/**
+ * Non-blocking variant of the order API: WebFlux on Netty over R2DBC, next to the servlet/JPA application.
+ * Only compiled with the "reactive" Maven profile. It has no JDBC data source or Hibernate; only the reactive
+ * order endpoints, the shared error handling and R2DBC are configured.
+ * <p>
+ * Deliberately not a {@code @SpringBootConfiguration} and not component-scanning, so neither tests nor the servlet
+ * application pick it up; in a servlet application it is skipped altogether.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableAutoConfiguration(exclude = {DataSourceAutoConfiguration.class, HibernateJpaAutoConfiguration.class})
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Import({ReactiveOrderRepository.class, ReactiveOrderController.class, OrderExceptionHandler.class})
+public class ReactiveOrderManagementApplication {
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(ReactiveOrderManagementApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .run(args);
+    }
+
+    // Tomcat is on the classpath for the servlet application and would otherwise be preferred; serve from Netty
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    // Same order table, indexes and sequence as every shard of the servlet application
+    @Bean
+    public ConnectionFactoryInitializer orderSchemaInitializer(ConnectionFactory connectionFactory) {
+        ConnectionFactoryInitializer initializer = new ConnectionFactoryInitializer();
+        initializer.setConnectionFactory(connectionFactory);
+        initializer.setDatabasePopulator(new ResourceDatabasePopulator(new ClassPathResource("schema-shard.sql")));
+        return initializer;
+    }
+}
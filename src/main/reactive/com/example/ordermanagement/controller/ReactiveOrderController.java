@@ -0,0 +1,182 @@
+package com.example.ordermanagement.controller;
+
+import com.example.ordermanagement.dto.OrderBatchResponse;
+import com.example.ordermanagement.entity.Order;
+import com.example.ordermanagement.exception.BatchTooLargeException;
+import com.example.ordermanagement.exception.CustomErrorResponse;
+import com.example.ordermanagement.exception.OrderNotFoundException;
+import com.example.ordermanagement.exception.PreconditionFailedException;
+import com.example.ordermanagement.repository.ReactiveOrderRepository;
+import com.example.ordermanagement.validation.OrderValidator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reactive counterpart of {@link OrderController} for the WebFlux application: same paths, status codes, headers
+ * and error bodies for create, list, stream, batch get, get, update and delete. No request thread waits on the
+ * database. Search, statistics, bulk ingestion and CBOR are only served by the servlet application.
+ */
+@RestController
+@RequestMapping("/orders")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveOrderController {
+
+    // Most IDs bound into one IN list, as in the servlet application
+    private static final int IN_LIST_CHUNK_SIZE = 500;
+
+    private final ReactiveOrderRepository orderRepository;
+
+    @Autowired
+    public ReactiveOrderController(ReactiveOrderRepository orderRepository) {
+        this.orderRepository = orderRepository;
+    }
+
+    // Create an order
+    @PostMapping
+    public Mono<ResponseEntity<?>> createOrder(@RequestBody Order order) {
+        List<String> errors = OrderValidator.validate(order);
+        if (!errors.isEmpty()) {
+            CustomErrorResponse errorResponse = new CustomErrorResponse("Validation Error", errors);
+            return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse));
+        }
+
+        order.setId(null);
+        order.setVersion(null);
+        order.setOrderDate(LocalDate.now());
+        return orderRepository.insert(order)
+                .<ResponseEntity<?>>map(savedOrder -> ResponseEntity.status(HttpStatus.CREATED).body(savedOrder));
+    }
+
+    // Get all orders, one keyset page at a time
+    @GetMapping
+    public Mono<ResponseEntity<List<Order>>> getAllOrders(@RequestParam(required = false) String cursor,
+                                                          @RequestParam(defaultValue = "" + OrderController.DEFAULT_PAGE_SIZE) int limit) {
+        int pageSize = Math.max(1, Math.min(limit, OrderController.MAX_PAGE_SIZE));
+        long afterId = OrderCursor.decode(cursor);
+
+        return orderRepository.findPageAfter(afterId, pageSize).collectList().map(orders -> {
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (orders.size() == pageSize) {
+                response.header(OrderController.NEXT_CURSOR_HEADER, OrderCursor.encode(orders.get(pageSize - 1).getId()));
+            }
+            return response.body(orders);
+        });
+    }
+
+    // Stream all orders as newline-delimited JSON. Rows are read as fast as the client consumes them.
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Order> streamAllOrders() {
+        return orderRepository.findAll();
+    }
+
+    // Get several orders by ID in one call: GET /orders?ids=1,2,3
+    @GetMapping(params = "ids")
+    public Mono<OrderBatchResponse> getOrdersByIds(@RequestParam List<Long> ids) {
+        return findOrdersByIds(ids);
+    }
+
+    // Same as GET /orders?ids=..., with the IDs as a JSON array in the body
+    @PostMapping("/_mget")
+    public Mono<OrderBatchResponse> multiGetOrders(@RequestBody List<Long> ids) {
+        return findOrdersByIds(ids);
+    }
+
+    private Mono<OrderBatchResponse> findOrdersByIds(List<Long> ids) {
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        requested.remove(null);
+        if (requested.size() > OrderController.MAX_BATCH_SIZE) {
+            return Mono.error(new BatchTooLargeException("At most " + OrderController.MAX_BATCH_SIZE
+                    + " IDs can be requested at once, got " + requested.size()));
+        }
+        List<Long> distinct = List.copyOf(requested);
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += IN_LIST_CHUNK_SIZE) {
+            chunks.add(distinct.subList(from, Math.min(distinct.size(), from + IN_LIST_CHUNK_SIZE)));
+        }
+        return Flux.fromIterable(chunks)
+                .concatMap(orderRepository::findAllById)
+                .collectMap(Order::getId)
+                .map(found -> toBatchResponse(distinct, found));
+    }
+
+    private static OrderBatchResponse toBatchResponse(List<Long> requested, Map<Long, Order> found) {
+        List<Order> orders = new ArrayList<>(requested.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : requested) {
+            Order order = found.get(id);
+            if (order != null) {
+                orders.add(order);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new OrderBatchResponse(orders, missing);
+    }
+
+    // Get an order by ID. The version is the ETag; a matching If-None-Match gets 304 Not Modified.
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Order>> getOrderById(@PathVariable Long id) {
+        return findExisting(id).map(order -> ResponseEntity.ok().eTag(OrderETag.of(order)).body(order));
+    }
+
+    // Update an order. With If-Match, the update only applies to that version; either way a concurrent
+    // update committed in between makes it fail with 412 instead of being overwritten.
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<?>> updateOrder(@PathVariable Long id,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                               @RequestBody Order updatedOrder) {
+        List<String> errors = OrderValidator.validate(updatedOrder);
+        if (!errors.isEmpty()) {
+            CustomErrorResponse errorResponse = new CustomErrorResponse("Validation Error", errors);
+            return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse));
+        }
+
+        return findExisting(id).flatMap(order -> {
+            if (!OrderETag.matches(ifMatch, order)) {
+                return Mono.error(new PreconditionFailedException("Order " + id + " is at version " + order.getVersion()
+                        + ", which does not match If-Match " + ifMatch));
+            }
+            long version = order.getVersion() == null ? 0L : order.getVersion();
+            order.setCustomerName(updatedOrder.getCustomerName());
+            order.setShippingAddress(updatedOrder.getShippingAddress());
+            order.setTotal(updatedOrder.getTotal());
+            return orderRepository.update(order, version)
+                    .switchIfEmpty(Mono.error(() -> new PreconditionFailedException(
+                            "Order " + id + " was modified concurrently, reload it and retry")));
+        }).<ResponseEntity<?>>map(savedOrder -> ResponseEntity.ok().eTag(OrderETag.of(savedOrder)).body(savedOrder));
+    }
+
+    // Delete an order
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<String>> deleteOrder(@PathVariable Long id) {
+        return orderRepository.deleteById(id)
+                .filter(deleted -> deleted)
+                .map(deleted -> ResponseEntity.ok("Order deleted successfully"))
+                .switchIfEmpty(Mono.error(() -> new OrderNotFoundException("Order not found with id: " + id)));
+    }
+
+    private Mono<Order> findExisting(Long id) {
+        return orderRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new OrderNotFoundException("Order not found with id: " + id)));
+    }
+
+    // Exception handling for OrderNotFoundException, with the same plain-text body as OrderController
+    @ExceptionHandler(OrderNotFoundException.class)
+    public ResponseEntity<String> handleOrderNotFoundException(OrderNotFoundException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+    }
+}
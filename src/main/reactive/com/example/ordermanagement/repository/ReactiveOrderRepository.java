@@ -0,0 +1,167 @@
+package com.example.ordermanagement.repository;
+
+import com.example.ordermanagement.entity.Order;
+import io.r2dbc.spi.Readable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+/**
+ * Non-blocking access to the order table over R2DBC, for the reactive application. Plain SQL, like
+ * {@link OrderJdbcWriter}: no entity manager, each row is mapped straight to an {@link Order}.
+ * <p>
+ * New IDs come from the "order_seq" sequence with the same pooled semantics as {@link OrderIdAllocator}.
+ * Updates increment the version and only apply to the version that was read, like Hibernate's optimistic locking.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveOrderRepository {
+
+    private static final String COLUMNS = "id, customer_name, order_date, shipping_address, total, version";
+
+    private final DatabaseClient databaseClient;
+    // Current block of reserved IDs; guarded by this
+    private long next;
+    private long blockEnd = -1;
+
+    @Autowired
+    public ReactiveOrderRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<Order> findById(long id) {
+        return databaseClient.sql("select " + COLUMNS + " from \"order\" where id = :id")
+                .bind("id", id)
+                .map(ReactiveOrderRepository::toOrder)
+                .one();
+    }
+
+    /**
+     * @return The orders with the given IDs that exist, in no particular order.
+     */
+    public Flux<Order> findAllById(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Flux.empty();
+        }
+        return databaseClient.sql("select " + COLUMNS + " from \"order\" where id in (:ids)")
+                .bind("ids", ids)
+                .map(ReactiveOrderRepository::toOrder)
+                .all();
+    }
+
+    /**
+     * Keyset page: the first orders with an ID greater than the given one, in ID order.
+     */
+    public Flux<Order> findPageAfter(long afterId, int pageSize) {
+        return databaseClient.sql("select " + COLUMNS + " from \"order\" where id > :afterId order by id limit :limit")
+                .bind("afterId", afterId)
+                .bind("limit", pageSize)
+                .map(ReactiveOrderRepository::toOrder)
+                .all();
+    }
+
+    /**
+     * Every order in ID order. Rows are fetched as the subscriber requests them, so a slow consumer slows the query
+     * down instead of buffering the table.
+     */
+    public Flux<Order> findAll() {
+        return databaseClient.sql("select " + COLUMNS + " from \"order\" order by id")
+                .map(ReactiveOrderRepository::toOrder)
+                .all();
+    }
+
+    /**
+     * Inserts a new order, assigning its ID and version 0.
+     */
+    public Mono<Order> insert(Order order) {
+        return nextId().flatMap(id -> {
+            order.setId(id);
+            order.setVersion(0L);
+            DatabaseClient.GenericExecuteSpec insert = databaseClient.sql("insert into \"order\" (" + COLUMNS + ")"
+                            + " values (:id, :customerName, :orderDate, :shippingAddress, :total, :version)")
+                    .bind("id", id)
+                    .bind("version", 0L);
+            return bindValues(insert, order).then().thenReturn(order);
+        });
+    }
+
+    /**
+     * Writes the order if the stored row is still at the expected version, and increments the version.
+     *
+     * @return The order with its new version, or empty if the row was changed or deleted in the meantime.
+     */
+    public Mono<Order> update(Order order, long expectedVersion) {
+        DatabaseClient.GenericExecuteSpec update = databaseClient.sql("update \"order\""
+                        + " set customer_name = :customerName, order_date = :orderDate, shipping_address = :shippingAddress,"
+                        + " total = :total, version = coalesce(version, 0) + 1"
+                        + " where id = :id and coalesce(version, 0) = :version")
+                .bind("id", order.getId())
+                .bind("version", expectedVersion);
+        return bindValues(update, order).fetch().rowsUpdated()
+                .filter(rows -> rows > 0)
+                .map(rows -> {
+                    order.setVersion(expectedVersion + 1);
+                    return order;
+                });
+    }
+
+    /**
+     * @return True if the order existed.
+     */
+    public Mono<Boolean> deleteById(long id) {
+        return databaseClient.sql("delete from \"order\" where id = :id")
+                .bind("id", id)
+                .fetch().rowsUpdated()
+                .map(rows -> rows > 0);
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bindValues(DatabaseClient.GenericExecuteSpec spec, Order order) {
+        spec = bind(spec, "customerName", order.getCustomerName(), String.class);
+        spec = bind(spec, "orderDate", order.getOrderDate(), LocalDate.class);
+        spec = bind(spec, "shippingAddress", order.getShippingAddress(), String.class);
+        return bind(spec, "total", order.getTotal(), Double.class);
+    }
+
+    private static <T> DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, String name,
+                                                              T value, Class<T> type) {
+        return value == null ? spec.bindNull(name, type) : spec.bind(name, value);
+    }
+
+    // Reserves a new block of 50 from the sequence when the current one is used up. Two subscribers may both
+    // reserve one; the later block is then dropped, which only leaves a gap in the IDs.
+    private Mono<Long> nextId() {
+        return Mono.defer(() -> {
+            synchronized (this) {
+                if (next <= blockEnd) {
+                    return Mono.just(next++);
+                }
+            }
+            return databaseClient.sql("select next value for order_seq")
+                    .map(row -> row.get(0, Long.class))
+                    .one()
+                    .map(hi -> {
+                        synchronized (this) {
+                            if (next > blockEnd) {
+                                blockEnd = hi;
+                                next = Math.max(1, hi - OrderIdAllocator.BLOCK_SIZE + 1);
+                            }
+                            return next++;
+                        }
+                    });
+        });
+    }
+
+    private static Order toOrder(Readable row) {
+        Order order = new Order(row.get("customer_name", String.class), row.get("order_date", LocalDate.class),
+                row.get("shipping_address", String.class), row.get("total", Double.class));
+        order.setId(row.get("id", Long.class));
+        order.setVersion(row.get("version", Long.class));
+        return order;
+    }
+}
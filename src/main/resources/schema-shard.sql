@@ -0,0 +1,14 @@
+-- Order table of one shard, and of the single database in the fast-start profile; kept in line with the Order
+-- entity (Hibernate only updates the first shard, and only validates in the fast-start profile)
+CREATE TABLE IF NOT EXISTS "order" (
+    id BIGINT NOT NULL PRIMARY KEY,
+    customer_name VARCHAR(255),
+    order_date DATE,
+    shipping_address VARCHAR(255),
+    total FLOAT(53),
+    version BIGINT
+);
+CREATE INDEX IF NOT EXISTS idx_order_customer_date ON "order" (customer_name, order_date);
+CREATE INDEX IF NOT EXISTS idx_order_date ON "order" (order_date);
+CREATE INDEX IF NOT EXISTS idx_order_total ON "order" (total);
+CREATE SEQUENCE IF NOT EXISTS order_seq START WITH 1 INCREMENT BY 50;
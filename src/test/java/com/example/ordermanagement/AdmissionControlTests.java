@@ -0,0 +1,101 @@
+package com.example.ordermanagement;
+
+import com.example.ordermanagement.admission.AdaptiveConcurrencyLimit;
+import com.example.ordermanagement.admission.AdmissionControlInterceptor;
+import com.example.ordermanagement.admission.ClientRateLimiter;
+import com.example.ordermanagement.exception.ServiceUnavailableException;
+import com.example.ordermanagement.exception.TooManyRequestsException;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdmissionControlTests {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    public void rateLimiter_AllowsBurstThenRefillsPerClient() {
+        // Arrange: 10 requests per second, bursts of 2
+        ClientRateLimiter limiter = new ClientRateLimiter(10, 2, 100);
+        long now = System.nanoTime();
+
+        // Act & Assert: The third request at once waits for the next token, other clients are unaffected
+        assertEquals(0, limiter.tryAcquire("a", now));
+        assertEquals(0, limiter.tryAcquire("a", now));
+        long wait = limiter.tryAcquire("a", now);
+        assertEquals(100 * MILLIS, wait);
+        assertEquals(0, limiter.tryAcquire("b", now));
+        assertEquals(0, limiter.tryAcquire("a", now + wait));
+    }
+
+    @Test
+    public void concurrencyLimit_ShrinksOnSlowRequestsAndGrowsBack() {
+        // Arrange: Up to 10 concurrent requests, 100 ms target
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(1, 10, 100 * MILLIS, 0.5);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limit.tryAcquire());
+        }
+        assertFalse(limit.tryAcquire());
+
+        // Act: All ten started together and finish slowly
+        long start = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            limit.release(start, start + 500 * MILLIS);
+        }
+
+        // Assert: One slow burst halves the limit once
+        assertEquals(5, limit.getLimit());
+        assertEquals(0, limit.getInFlight());
+
+        // Act: Fast requests while the limit is in use
+        long later = start + 1000 * MILLIS;
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < limit.getLimit(); i++) {
+                assertTrue(limit.tryAcquire());
+            }
+            for (int i = limit.getInFlight(); i > 0; i--) {
+                limit.release(later, later + MILLIS);
+            }
+        }
+
+        // Assert: The limit has grown back to the maximum
+        assertEquals(10, limit.getLimit());
+    }
+
+    @Test
+    public void interceptor_RejectsOverRateWith429AndOverLimitWith503() {
+        // Arrange: Client IDs from a header, two concurrent writes at most
+        MockEnvironment environment = new MockEnvironment().withProperty("orders.admission.write.max-limit", "2");
+        AdmissionControlInterceptor interceptor = new AdmissionControlInterceptor(environment, "X-Client-Id", 1, 2, 100, 1, 0.9);
+
+        // Act & Assert: A third write while two are running is shed
+        MockHttpServletRequest first = request("POST", "/orders", "a");
+        MockHttpServletRequest second = request("POST", "/orders", "b");
+        assertTrue(interceptor.preHandle(first, new MockHttpServletResponse(), null));
+        assertTrue(interceptor.preHandle(second, new MockHttpServletResponse(), null));
+        assertThrows(ServiceUnavailableException.class,
+                () -> interceptor.preHandle(request("POST", "/orders", "c"), new MockHttpServletResponse(), null));
+
+        // Act & Assert: Point reads have their own limit, and a finished write frees its slot
+        assertTrue(interceptor.preHandle(request("GET", "/orders/1", "c"), new MockHttpServletResponse(), null));
+        interceptor.afterCompletion(first, new MockHttpServletResponse(), null, null);
+        assertTrue(interceptor.preHandle(request("PUT", "/orders/1", "d"), new MockHttpServletResponse(), null));
+
+        // Act & Assert: Client a has used its burst of two
+        assertTrue(interceptor.preHandle(request("GET", "/orders/2", "a"), new MockHttpServletResponse(), null));
+        TooManyRequestsException ex = assertThrows(TooManyRequestsException.class,
+                () -> interceptor.preHandle(request("GET", "/orders/3", "a"), new MockHttpServletResponse(), null));
+        assertEquals(1, ex.getRetryAfterSeconds());
+    }
+
+    private static MockHttpServletRequest request(String method, String uri, String client) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.addHeader("X-Client-Id", client);
+        return request;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.ordermanagement;
+
+import com.example.ordermanagement.config.DatabaseBulkheadConfig;
+import com.example.ordermanagement.config.DatabaseBulkheadInterceptor;
+import com.example.ordermanagement.exception.ServiceUnavailableException;
+import jakarta.servlet.DispatcherType;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.handler.MappedInterceptor;
+import org.springframework.web.util.ServletRequestPathUtils;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DatabaseBulkheadInterceptorTests {
+
+    private final DatabaseBulkheadInterceptor interceptor = new DatabaseBulkheadInterceptor(1, Duration.ofMillis(10));
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Test
+    public void permit_IsReleasedAfterCompletion() throws Exception {
+        // Arrange: The only permit is taken
+        MockHttpServletRequest first = new MockHttpServletRequest("GET", "/orders/1");
+        assertTrue(interceptor.preHandle(first, response, null));
+
+        // Act & Assert: Another request times out with 503 until the first one has completed
+        assertThrows(ServiceUnavailableException.class,
+                () -> interceptor.preHandle(new MockHttpServletRequest("GET", "/orders/2"), response, null));
+        interceptor.afterCompletion(first, response, null, null);
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest("GET", "/orders/3"), response, null));
+    }
+
+    @Test
+    public void changeStream_DoesNotHoldAPermit() throws Exception {
+        // Arrange: The bulkhead as registered for a pool of one connection
+        InspectableRegistry registry = new InspectableRegistry();
+        new DatabaseBulkheadConfig(1, Duration.ofMillis(10)).addInterceptors(registry);
+        MappedInterceptor bulkhead = (MappedInterceptor) registry.interceptors().get(0);
+
+        // Act: A subscriber opens a change stream and keeps it open
+        MockHttpServletRequest stream = new MockHttpServletRequest("GET", "/orders/changes");
+        stream.setAsyncSupported(true);
+        ServletRequestPathUtils.parseAndCache(stream);
+        assertFalse(bulkhead.matches(stream));
+        stream.startAsync();
+
+        // Assert: An order request still gets the only permit
+        MockHttpServletRequest read = new MockHttpServletRequest("GET", "/orders/1");
+        ServletRequestPathUtils.parseAndCache(read);
+        assertTrue(bulkhead.matches(read));
+        assertTrue(bulkhead.preHandle(read, response, null));
+    }
+
+    @Test
+    public void asyncRequest_KeepsItsPermitUntilTheAsyncRequestCompletes() throws Exception {
+        // Arrange: A request goes async, which releases its servlet thread
+        MockHttpServletRequest first = new MockHttpServletRequest("GET", "/orders");
+        first.setAsyncSupported(true);
+        assertTrue(interceptor.preHandle(first, response, null));
+        first.startAsync();
+        interceptor.afterConcurrentHandlingStarted(first, response, null);
+
+        // Act & Assert: The async work still holds the permit
+        assertThrows(ServiceUnavailableException.class,
+                () -> interceptor.preHandle(new MockHttpServletRequest("GET", "/orders/2"), response, null));
+
+        // Act: The async dispatch runs without taking another permit, then the async request completes
+        first.setDispatcherType(DispatcherType.ASYNC);
+        assertTrue(interceptor.preHandle(first, response, null));
+        ((MockAsyncContext) first.getAsyncContext()).complete();
+
+        // Assert: Released once, so exactly one new request fits
+        interceptor.afterCompletion(first, response, null, null);
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest("GET", "/orders/3"), response, null));
+        assertThrows(ServiceUnavailableException.class,
+                () -> interceptor.preHandle(new MockHttpServletRequest("GET", "/orders/4"), response, null));
+    }
+
+    private static class InspectableRegistry extends InterceptorRegistry {
+
+        List<Object> interceptors() {
+            return getInterceptors();
+        }
+    }
+}
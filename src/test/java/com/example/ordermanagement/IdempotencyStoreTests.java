@@ -0,0 +1,160 @@
+package com.example.ordermanagement;
+
+import com.example.ordermanagement.exception.IdempotencyKeyInProgressException;
+import com.example.ordermanagement.exception.IdempotencyKeyReusedException;
+import com.example.ordermanagement.idempotency.IdempotencyStore;
+import com.example.ordermanagement.idempotency.JdbcIdempotencyRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IdempotencyStoreTests {
+
+    private IdempotencyStore idempotencyStore;
+
+    @BeforeEach
+    public void setup() {
+        idempotencyStore = new IdempotencyStore(new ObjectMapper(), Optional.empty(), 1000, Duration.ofHours(1), Duration.ofSeconds(5),
+                Duration.ofMinutes(10));
+    }
+
+    @Test
+    public void concurrentDuplicates_RunTheActionOnceAndShareItsResponse() throws Exception {
+        // Arrange: The first request blocks until every duplicate has arrived
+        int requests = 8;
+        CountDownLatch arrived = new CountDownLatch(requests);
+        AtomicInteger runs = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(requests);
+
+        // Act
+        List<Future<ResponseEntity<?>>> responses = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            responses.add(executor.submit(() -> {
+                arrived.countDown();
+                return idempotencyStore.execute("key-1", "fingerprint", () -> {
+                    runs.incrementAndGet();
+                    awaitQuietly(arrived);
+                    return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("id", 42));
+                });
+            }));
+        }
+
+        // Assert: One run; every caller gets 201 with the same body
+        for (Future<ResponseEntity<?>> response : responses) {
+            assertEquals(HttpStatus.CREATED, response.get().getStatusCode());
+            assertTrue(response.get().getBody().toString().contains("42"));
+        }
+        assertEquals(1, runs.get());
+        executor.shutdown();
+    }
+
+    @Test
+    public void sameKeyWithDifferentRequest_IsRejected() {
+        // Arrange
+        idempotencyStore.execute("key-2", "fingerprint-a", () -> ResponseEntity.ok("first"));
+
+        // Act & Assert
+        assertThrows(IdempotencyKeyReusedException.class,
+                () -> idempotencyStore.execute("key-2", "fingerprint-b", () -> ResponseEntity.ok("second")));
+    }
+
+    @Test
+    public void failedRequest_IsNotStoredAndCanBeRetried() {
+        // Arrange: The first attempt fails
+        assertThrows(IllegalStateException.class, () -> idempotencyStore.execute("key-3", "fingerprint", () -> {
+            throw new IllegalStateException("Database unavailable");
+        }));
+
+        // Act: The retry succeeds
+        ResponseEntity<?> response = idempotencyStore.execute("key-3", "fingerprint", () -> ResponseEntity.ok("created"));
+
+        // Assert: The retry ran, and is not a replay
+        assertEquals("created", response.getBody());
+        assertNull(response.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+    }
+
+    @Test
+    public void persistent_ClaimOfCrashedInstance_CanBeClaimedAgainAfterItsLease() {
+        // Arrange: One instance is still running a request claimed a minute ago, well past the wait timeout; another
+        // claimed its key half an hour ago and died before storing a response
+        JdbcTemplate jdbcTemplate = h2("stale-claim");
+        IdempotencyStore store = persistentStore(jdbcTemplate);
+        jdbcTemplate.update("INSERT INTO idempotency_key (idempotency_key, fingerprint, created_at) VALUES (?, ?, ?)",
+                "key-3", "fingerprint", Timestamp.from(Instant.now().minusSeconds(60)));
+        jdbcTemplate.update("INSERT INTO idempotency_key (idempotency_key, fingerprint, created_at) VALUES (?, ?, ?)",
+                "key-4", "fingerprint", Timestamp.from(Instant.now().minusSeconds(30 * 60)));
+
+        // Act
+        ResponseEntity<?> response = store.execute("key-4", "fingerprint", () -> ResponseEntity.ok("created"));
+
+        // Assert: The running request keeps its key, the retry of the dead one ran instead of getting 409 until the
+        // TTL, and its response was stored
+        assertThrows(IdempotencyKeyInProgressException.class,
+                () -> store.execute("key-3", "fingerprint", () -> ResponseEntity.ok("created twice")));
+        assertEquals("created", response.getBody());
+        assertEquals(200, jdbcTemplate.queryForObject(
+                "SELECT status FROM idempotency_key WHERE idempotency_key = 'key-4'", Integer.class));
+    }
+
+    @Test
+    public void persistent_ResponseNotStored_StoresAMarkerInstead() {
+        // Arrange: Storing the response fails once the request has run; only the 500 marker fits the constraint
+        JdbcTemplate jdbcTemplate = h2("complete-fails");
+        IdempotencyStore store = persistentStore(jdbcTemplate);
+        AtomicInteger runs = new AtomicInteger();
+
+        // Act
+        ResponseEntity<?> response = store.execute("key-5", "fingerprint", () -> {
+            runs.incrementAndGet();
+            jdbcTemplate.execute("ALTER TABLE idempotency_key ADD CONSTRAINT no_status CHECK (status IS NULL OR status = 500)");
+            return ResponseEntity.ok("created");
+        });
+
+        // Assert: The caller gets the response, a retry here is replayed, and another instance replays the marker
+        assertEquals("created", response.getBody());
+        ResponseEntity<?> retry = store.execute("key-5", "fingerprint", () -> ResponseEntity.ok("created again"));
+        assertEquals("true", retry.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+        ResponseEntity<?> elsewhere = persistentStore(jdbcTemplate)
+                .execute("key-5", "fingerprint", () -> ResponseEntity.ok("created again"));
+        assertEquals(500, elsewhere.getStatusCode().value());
+        assertEquals("true", elsewhere.getHeaders().getFirst(IdempotencyStore.REPLAYED_HEADER));
+        assertEquals(1, runs.get());
+    }
+
+    private static JdbcTemplate h2(String name) {
+        return new JdbcTemplate(new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", ""));
+    }
+
+    private static IdempotencyStore persistentStore(JdbcTemplate jdbcTemplate) {
+        ObjectMapper objectMapper = new ObjectMapper();
+        return new IdempotencyStore(objectMapper, Optional.of(new JdbcIdempotencyRepository(jdbcTemplate, objectMapper)),
+                1000, Duration.ofHours(24), Duration.ofSeconds(5), Duration.ofMinutes(10));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.ordermanagement;
+
+import com.example.ordermanagement.archive.OrderArchive;
+import com.example.ordermanagement.cache.OrderCache;
+import com.example.ordermanagement.entity.Order;
+import com.example.ordermanagement.event.OrderChangedEvent;
+import com.example.ordermanagement.repository.OrderJdbcWriter;
+import com.example.ordermanagement.shard.ShardRouter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class OrderArchiveTests {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+    @TempDir
+    Path tempDir;
+
+    private JdbcTemplate jdbcTemplate;
+    private OrderJdbcWriter jdbcWriter;
+    private ShardRouter shardRouter;
+    private OrderCache orderCache;
+    private ApplicationEventPublisher eventPublisher;
+
+    @BeforeEach
+    public void setup() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        jdbcWriter = mock(OrderJdbcWriter.class);
+        shardRouter = mock(ShardRouter.class);
+        orderCache = mock(OrderCache.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        // Every row is still unchanged unless a test says otherwise
+        deleteUnchanged(null);
+        when(shardRouter.getShardCount()).thenReturn(1);
+        when(shardRouter.onShard(anyInt(), any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+    }
+
+    @Test
+    public void archive_MovesOrdersToSegmentsAndServesLookups() throws Exception {
+        // Arrange: 200 old orders, spread over several compressed blocks
+        List<Order> orders = new ArrayList<>();
+        for (long id = 1; id <= 200; id++) {
+            orders.add(order(id, 0L, "Customer " + id));
+        }
+        returnArchivable(orders);
+        // Order 7 changed after it was read, so its row stays
+        deleteUnchanged(7L);
+        OrderArchive archive = archive();
+        archive.start();
+
+        // Act
+        int archived = archive.archive();
+
+        // Assert: Every deleted order can be found, the changed one is not archived, and unknown IDs miss
+        assertEquals(199, archived);
+        assertEquals("Customer 1", archive.findById(1L).orElseThrow().getCustomerName());
+        assertEquals("Customer 130", archive.findById(130L).orElseThrow().getCustomerName());
+        assertEquals("Customer 200", archive.findById(200L).orElseThrow().getCustomerName());
+        assertTrue(archive.findById(7L).isEmpty());
+        assertTrue(archive.findById(201L).isEmpty());
+        verify(jdbcWriter).deleteAllUnchanged(eq(orders), any());
+        verify(orderCache).evict(1L);
+        verify(orderCache, never()).evict(7L);
+        // Only the deleted rows are announced, so the journal and statistics drop exactly those
+        ArgumentCaptor<OrderChangedEvent> events = ArgumentCaptor.forClass(OrderChangedEvent.class);
+        verify(eventPublisher, times(199)).publishEvent(events.capture());
+        assertTrue(events.getAllValues().stream().allMatch(event -> event.getType() == OrderChangedEvent.Type.ARCHIVED));
+        assertTrue(events.getAllValues().stream().noneMatch(event -> event.getOrderId() == 7L));
+        archive.stop();
+    }
+
+    @Test
+    public void restart_ReopensSegmentsAndPrefersTheNewestCopy() throws Exception {
+        // Arrange: Order 5 is archived, then archived again at a later version (its row had changed meanwhile)
+        OrderArchive archive = archive();
+        archive.start();
+        returnArchivable(List.of(order(5L, 0L, "Martin Prieto")));
+        archive.archive();
+        returnArchivable(List.of(order(5L, 1L, "Pedro Almario")));
+        archive.archive();
+        archive.stop();
+
+        // Act: Open the same directory again
+        OrderArchive restarted = archive();
+        restarted.start();
+
+        // Assert: The later copy wins
+        Order found = restarted.findById(5L).orElseThrow();
+        assertEquals(1L, found.getVersion());
+        assertEquals("Pedro Almario", found.getCustomerName());
+        restarted.stop();
+    }
+
+    @Test
+    public void archive_FailedDeleteLeavesNoSegment() throws Exception {
+        // Arrange: The segment is written, then the deletes fail to commit
+        returnArchivable(List.of(order(5L, 0L, "Martin Prieto")));
+        doAnswer(invocation -> {
+            invocation.<Consumer<List<Order>>>getArgument(1).accept(invocation.getArgument(0));
+            throw new CannotAcquireLockException("Commit failed");
+        }).when(jdbcWriter).deleteAllUnchanged(anyCollection(), any());
+        OrderArchive archive = archive();
+        archive.start();
+
+        // Act
+        assertThrows(CannotAcquireLockException.class, archive::archive);
+
+        // Assert: The row is still the only copy, and nothing was announced
+        assertTrue(archive.findById(5L).isEmpty());
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(0, files.count());
+        }
+        verifyNoInteractions(eventPublisher, orderCache);
+        archive.stop();
+    }
+
+    /**
+     * Deletes every row except the changed one, handing the deleted orders to the callback as the writer does.
+     */
+    private void deleteUnchanged(Long changedId) {
+        // doAnswer, so stubbing again does not call the previous answer
+        doAnswer(invocation -> {
+            List<Order> deleted = new ArrayList<>(invocation.<List<Order>>getArgument(0));
+            deleted.removeIf(order -> order.getId().equals(changedId));
+            invocation.<Consumer<List<Order>>>getArgument(1).accept(deleted);
+            return deleted;
+        }).when(jdbcWriter).deleteAllUnchanged(anyCollection(), any());
+    }
+
+    private void returnArchivable(List<Order> orders) {
+        when(jdbcTemplate.query(anyString(), ArgumentMatchers.<RowMapper<Order>>any(), any(), any(), any()))
+                .thenReturn(orders, List.of());
+    }
+
+    private OrderArchive archive() {
+        return new OrderArchive(jdbcTemplate, jdbcWriter, shardRouter, orderCache, eventPublisher, objectMapper, tempDir,
+                Duration.ofDays(365), Duration.ofHours(1), 1000, 64);
+    }
+
+    private static Order order(Long id, Long version, String customerName) {
+        Order order = new Order(customerName, LocalDate.of(2020, 1, 1), id + " Archive St", 10.0 + id);
+        order.setId(id);
+        order.setVersion(version);
+        return order;
+    }
+}
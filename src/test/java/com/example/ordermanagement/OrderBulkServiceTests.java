@@ -0,0 +1,70 @@
+package com.example.ordermanagement;
+
+import com.example.ordermanagement.dto.BulkOrderResponse;
+import com.example.ordermanagement.entity.Order;
+import com.example.ordermanagement.service.OrderBulkService;
+import com.example.ordermanagement.shard.ShardedOrderRepository;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+public class OrderBulkServiceTests {
+
+    private static final String VALID = "{ \"customerName\": \"John Doe\", \"shippingAddress\": \"123 Main St\", \"total\": 100.0 }";
+
+    private final ObjectReader reader = JsonMapper.builder().findAndAddModules().build().readerFor(Order.class);
+
+    private ShardedOrderRepository orderRepository;
+    private OrderBulkService orderBulkService;
+
+    @BeforeEach
+    public void setup() {
+        orderRepository = mock(ShardedOrderRepository.class);
+        // One order per chunk, so the orders before a bad item are already committed when it is read
+        orderBulkService = new OrderBulkService(orderRepository, mock(ApplicationEventPublisher.class), 1);
+    }
+
+    @Test
+    public void ingest_UnmappableItem_IsReportedAndTheRestIsStillIngested() throws Exception {
+        // Arrange: The second item has a total that is not a number
+        String body = "[" + VALID + ", { \"customerName\": \"Jane Doe\", \"total\": \"a lot\" }, " + VALID + "]";
+
+        // Act
+        BulkOrderResponse response;
+        try (MappingIterator<Order> orders = reader.readValues(body)) {
+            response = orderBulkService.ingest(orders);
+        }
+
+        // Assert
+        assertEquals(3, response.getReceived());
+        assertEquals(2, response.getCreated());
+        assertEquals(1, response.getErrors().size());
+        assertEquals(1, response.getErrors().get(0).getIndex());
+        verify(orderRepository, times(2)).saveAll(anyList());
+    }
+
+    @Test
+    public void ingest_MalformedInput_KeepsTheOrdersBeforeItAndStops() throws Exception {
+        // Arrange: The stream breaks off in the middle of the third item
+        String body = VALID + "\n" + VALID + "\n{ \"customerName\": \"Jane Doe\", \"total\": }\n" + VALID;
+
+        // Act
+        BulkOrderResponse response;
+        try (MappingIterator<Order> orders = reader.readValues(body)) {
+            response = orderBulkService.ingest(orders);
+        }
+
+        // Assert: The two committed orders are reported as created, the break as an error at its position
+        assertEquals(2, response.getCreated());
+        assertEquals(1, response.getErrors().size());
+        assertEquals(2, response.getErrors().get(0).getIndex());
+        assertTrue(response.getErrors().get(0).getErrors().get(0).endsWith("the rest of the input was not read"));
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.ordermanagement;
+
+import com.example.ordermanagement.changes.OrderChangeStream;
+import com.example.ordermanagement.dto.OrderChange;
+import com.example.ordermanagement.entity.Order;
+import com.example.ordermanagement.event.OrderChangedEvent;
+import com.example.ordermanagement.exception.SequenceExpiredException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderChangeStreamTests {
+
+    private OrderChangeStream orderChangeStream;
+
+    @BeforeEach
+    public void setup() {
+        orderChangeStream = new OrderChangeStream(3, Duration.ofMinutes(1), 2);
+    }
+
+    @AfterEach
+    public void teardown() {
+        orderChangeStream.destroy();
+    }
+
+    @Test
+    public void changesAfter_ReturnsChangesInSequenceOrder() {
+        // Arrange: An order is created, updated and deleted
+        Order created = order(1L, "Martin Prieto");
+        Order updated = order(1L, "Pedro Almario");
+        orderChangeStream.onOrderChanged(OrderChangedEvent.created(created));
+        orderChangeStream.onOrderChanged(OrderChangedEvent.updated(created, updated));
+        orderChangeStream.onOrderChanged(OrderChangedEvent.deleted(updated));
+
+        // Act
+        List<OrderChange> changes = orderChangeStream.changesAfter(1, 10);
+
+        // Assert: The changes after the first one, numbered consecutively; deletes carry no order
+        assertEquals(3, orderChangeStream.getLastSequence());
+        assertEquals(2, changes.size());
+        assertEquals(2, changes.get(0).getSequence());
+        assertEquals(OrderChangedEvent.Type.UPDATED, changes.get(0).getType());
+        assertEquals("Pedro Almario", changes.get(0).getOrder().getCustomerName());
+        assertEquals(OrderChangedEvent.Type.DELETED, changes.get(1).getType());
+        assertEquals(1L, changes.get(1).getOrderId());
+        assertNull(changes.get(1).getOrder());
+        assertTrue(orderChangeStream.changesAfter(3, 10).isEmpty());
+    }
+
+    @Test
+    public void changesAfter_KeepsACopyOfTheOrder() {
+        // Arrange
+        Order order = order(1L, "Martin Prieto");
+        orderChangeStream.onOrderChanged(OrderChangedEvent.created(order));
+
+        // Act: The published instance is changed afterwards
+        order.setCustomerName("Pedro Almario");
+
+        // Assert: The stream still has the order as it was published
+        assertEquals("Martin Prieto", orderChangeStream.changesAfter(0, 10).get(0).getOrder().getCustomerName());
+    }
+
+    @Test
+    public void changesAfter_RejectsPositionsOutsideTheReplayWindow() {
+        // Arrange: Five changes with room for three
+        for (long id = 1; id <= 5; id++) {
+            orderChangeStream.onOrderChanged(OrderChangedEvent.created(order(id, "Customer " + id)));
+        }
+
+        // Act
+        List<OrderChange> changes = orderChangeStream.changesAfter(2, 10);
+
+        // Assert: Changes 3 to 5 are still available; change 2 was overwritten, and 6 was never issued
+        assertEquals(List.of(3L, 4L, 5L), changes.stream().map(OrderChange::getSequence).toList());
+        assertThrows(SequenceExpiredException.class, () -> orderChangeStream.changesAfter(1, 10));
+        assertThrows(SequenceExpiredException.class, () -> orderChangeStream.changesAfter(6, 10));
+        assertThrows(SequenceExpiredException.class, () -> orderChangeStream.subscribe(1L));
+    }
+
+    @Test
+    public void subscriber_LappedWhileASendIsBlocked_IsDisconnectedAndItsSenderFreed() throws Exception {
+        // Arrange: A client that stops reading, so the first send to it blocks
+        CountDownLatch sendStarted = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/orders/changes");
+        request.setAsyncSupported(true);
+        CountDownLatch requestCompleted = new CountDownLatch(1);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        SseEmitter emitter;
+        try {
+            emitter = orderChangeStream.subscribe(null);
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+        request.startAsync().addListener(new AsyncListenerAdapter(requestCompleted));
+        attachClient(emitter, () -> {
+            sendStarted.countDown();
+            try {
+                new CountDownLatch(1).await();
+            } catch (InterruptedException ex) {
+                interrupted.countDown();
+                throw new IOException("Send interrupted");
+            }
+        });
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        orderChangeStream.bindTo(registry);
+        orderChangeStream.onOrderChanged(OrderChangedEvent.created(order(1L, "Customer 1")));
+        assertTrue(sendStarted.await(10, TimeUnit.SECONDS));
+
+        // Act: Enough changes for the ring (room for three) to lap the blocked subscriber
+        for (long id = 2; id <= 4; id++) {
+            orderChangeStream.onOrderChanged(OrderChangedEvent.created(order(id, "Customer " + id)));
+        }
+
+        // Assert: Disconnected at once, the blocked send was interrupted instead of holding the thread, and the
+        // request was completed instead of staying open until its timeout
+        assertEquals(0, registry.get("orders.changes.subscribers").gauge().value());
+        assertEquals(1, registry.get("orders.changes.overflows").functionCounter().count());
+        assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+        assertTrue(requestCompleted.await(10, TimeUnit.SECONDS));
+    }
+
+    // Counts the request down once the container reports it complete
+    private record AsyncListenerAdapter(CountDownLatch completed) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            completed.countDown();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+    }
+
+    // Connects the emitter to a client whose every write runs the given action, as the servlet container would
+    private static void attachClient(SseEmitter emitter, BlockingWrite write) throws Exception {
+        Class<?> handlerType = Class.forName(ResponseBodyEmitter.class.getName() + "$Handler");
+        Object handler = Proxy.newProxyInstance(handlerType.getClassLoader(), new Class<?>[]{handlerType},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("send")) {
+                        write.run();
+                    }
+                    return null;
+                });
+        ReflectionTestUtils.invokeMethod(emitter, "initialize", handler);
+    }
+
+    private interface BlockingWrite {
+        void run() throws IOException;
+    }
+
+    private static Order order(Long id, String customerName) {
+        Order order = new Order(customerName, LocalDate.of(2023, 7, 1), "Calle 1", 100.0);
+        order.setId(id);
+        return order;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.ordermanagement;
+
+import com.example.ordermanagement.dto.OrderReportResponse;
+import com.example.ordermanagement.report.OrderColumns;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderColumnsTests {
+
+    private static final LocalDate DAY = LocalDate.of(2023, 7, 1);
+
+    @Test
+    public void report_AggregatesByDayAndCustomer() {
+        // Arrange: Three orders over two days for two customers
+        OrderColumns columns = OrderColumns.builder()
+                .add(1L, 100.0, DAY, "Martin Prieto")
+                .add(2L, 50.0, DAY.plusDays(1), "Martin Prieto")
+                .add(3L, 25.0, DAY.plusDays(1), "Pedro Almario")
+                .build();
+
+        // Act
+        OrderReportResponse report = columns.report(null, null, null, null, 10);
+
+        // Assert: Overall, daily (in date order) and per-customer (by revenue) totals include all three orders
+        assertEquals(3, report.getSnapshotSize());
+        assertEquals(3, report.getOrderCount());
+        assertEquals(175.0, report.getRevenue());
+        assertEquals(2, report.getDaily().size());
+        assertEquals(DAY, report.getDaily().get(0).getDate());
+        assertEquals(75.0, report.getDaily().get(1).getRevenue());
+        assertEquals("Martin Prieto", report.getCustomers().get(0).getCustomerName());
+        assertEquals(150.0, report.getCustomers().get(0).getRevenue());
+        assertEquals(2, report.getCustomers().get(0).getOrderCount());
+    }
+
+    @Test
+    public void report_AppliesDateAndTotalFilters() {
+        // Arrange
+        OrderColumns columns = OrderColumns.builder()
+                .add(1L, 100.0, DAY, "Martin Prieto")
+                .add(2L, 50.0, DAY.plusDays(1), "Martin Prieto")
+                .add(3L, 25.0, DAY.plusDays(1), "Pedro Almario")
+                .add(4L, 10.0, null, "Pedro Almario")
+                .build();
+
+        // Act: Second day only, totals of at least 30
+        OrderReportResponse report = columns.report(DAY.plusDays(1), DAY.plusDays(1), 30.0, null, 10);
+
+        // Assert: Only order 2 matches
+        assertEquals(1, report.getOrderCount());
+        assertEquals(50.0, report.getRevenue());
+        assertEquals(1, report.getCustomers().size());
+    }
+
+    @Test
+    public void report_SplitsLargeSnapshotsAndLimitsTopCustomers() {
+        // Arrange: Enough rows to be scanned in several parallel chunks
+        OrderColumns.Builder builder = OrderColumns.builder();
+        double expectedRevenue = 0;
+        for (int i = 0; i < 100_000; i++) {
+            builder.add(i, i % 100, DAY.plusDays(i % 30), "Customer " + (i % 50));
+            expectedRevenue += i % 100;
+        }
+
+        // Act
+        OrderReportResponse report = builder.build().report(null, null, null, null, 3);
+
+        // Assert: Every row is counted exactly once and the customers come highest revenue first
+        assertEquals(100_000, report.getOrderCount());
+        assertEquals(expectedRevenue, report.getRevenue(), 1e-6);
+        assertEquals(30, report.getDaily().size());
+        assertEquals(3, report.getCustomers().size());
+        assertEquals("Customer 49", report.getCustomers().get(0).getCustomerName());
+        assertTrue(report.getCustomers().get(0).getRevenue() >= report.getCustomers().get(1).getRevenue());
+    }
+
+    @Test
+    public void report_OnEmptySnapshot_ReturnsZeroTotals() {
+        OrderReportResponse report = OrderColumns.builder().build().report(null, null, null, null, 10);
+
+        assertEquals(0, report.getOrderCount());
+        assertTrue(report.getDaily().isEmpty());
+        assertTrue(report.getCustomers().isEmpty());
+    }
+}
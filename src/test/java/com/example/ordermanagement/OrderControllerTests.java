@@ -1,8 +1,17 @@
 package com.example.ordermanagement;
 
+import com.example.ordermanagement.cache.OrderCache;
+import com.example.ordermanagement.config.CborConfig;
 import com.example.ordermanagement.controller.OrderController;
+import com.example.ordermanagement.dto.BulkItemError;
+import com.example.ordermanagement.dto.BulkOrderResponse;
 import com.example.ordermanagement.entity.Order;
+import com.example.ordermanagement.idempotency.IdempotencyStore;
 import com.example.ordermanagement.repository.OrderRepository;
+import com.example.ordermanagement.service.OrderBulkService;
+import com.example.ordermanagement.shard.ShardRouter;
+import com.example.ordermanagement.shard.ShardedOrderRepository;
+import com.example.ordermanagement.validation.OrderValidator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,7 +20,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
@@ -19,13 +33,16 @@ import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @WebMvcTest(OrderController.class)
 @AutoConfigureMockMvc
+@Import({OrderCache.class, ShardedOrderRepository.class, ShardRouter.class, IdempotencyStore.class})
 public class OrderControllerTests {
 
     @Autowired
@@ -34,12 +51,20 @@ public class OrderControllerTests {
     @MockBean
     private OrderRepository orderRepository;
 
+    @MockBean
+    private OrderBulkService orderBulkService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private OrderCache orderCache;
+
     @BeforeEach
     public void setup() {
         MockitoAnnotations.openMocks(this);
+        // The Spring context (and its cache) is shared between tests
+        orderCache.clear();
     }
 
     @Test
@@ -55,13 +80,56 @@ public class OrderControllerTests {
                 .andExpect(MockMvcResultMatchers.status().isCreated());
     }
 
+    @Test
+    public void createOrder_RepeatedIdempotencyKey_ReplaysFirstResponseWithoutSavingAgain() throws Exception {
+        // Arrange: The repository assigns ID 7 to the saved order
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+            Order saved = invocation.getArgument(0);
+            saved.setId(7L);
+            return saved;
+        });
+        String body = "{ \"customerName\": \"John Doe\", \"shippingAddress\": \"123 Main St\", \"total\": 100.0 }";
+
+        // Act & Assert: The retry gets the same status and body, marked as replayed
+        mockMvc.perform(MockMvcRequestBuilders.post("/orders")
+                        .header("Idempotency-Key", "create-john-doe-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(7));
+        mockMvc.perform(MockMvcRequestBuilders.post("/orders")
+                        .header("Idempotency-Key", "create-john-doe-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andExpect(MockMvcResultMatchers.header().string(IdempotencyStore.REPLAYED_HEADER, "true"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.id").value(7));
+        verify(orderRepository, times(1)).save(any(Order.class));
+    }
+
+    @Test
+    public void createOrdersInBulk_PartiallyValid_ReturnsMultiStatusWithItemErrors() throws Exception {
+        // Arrange: The service accepts the first item and rejects the second one
+        BulkItemError itemError = new BulkItemError(1, List.of("customerName: Customer name must not be blank"));
+        when(orderBulkService.ingest(any())).thenReturn(new BulkOrderResponse(2, 1, List.of(itemError)));
+
+        // Act & Assert: Perform a bulk POST with an NDJSON body and expect a Multi-Status (207) with per-item errors
+        mockMvc.perform(MockMvcRequestBuilders.post("/orders/bulk")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{ \"customerName\": \"John Doe\", \"shippingAddress\": \"123 Main St\", \"total\": 100.0 }\n"
+                                + "{ \"customerName\": \"\", \"shippingAddress\": \"456 Elm St\", \"total\": 50.0 }\n"))
+                .andExpect(MockMvcResultMatchers.status().isMultiStatus())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.created").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.errors[0].index").value(1));
+    }
+
     @Test
     public void getAllOrders_ReturnsListOfOrders() throws Exception {
         // Arrange: Create a list of orders and configure the mock repository to return the list
         List<Order> orders = new ArrayList<>();
         orders.add(new Order("Marcos Prieto", LocalDate.now(), "123 Main St", 100.0));
         orders.add(new Order("Marta Slim", LocalDate.now(), "456 Elm St", 200.0));
-        when(orderRepository.findAll()).thenReturn(orders);
+        when(orderRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class))).thenReturn(orders);
 
         // Act & Assert: Perform a GET request to retrieve all orders and expect an OK status (200)
         // Additionally, assert that the response JSON contains a property named "length" with a value of 2
@@ -70,6 +138,44 @@ public class OrderControllerTests {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.length()").value(2));
     }
 
+    @Test
+    public void getAllOrders_FullPage_ReturnsNextCursor() throws Exception {
+        // Arrange: Return exactly one full page so the controller hands back a continuation token
+        Order order = new Order("Marcos Prieto", LocalDate.now(), "123 Main St", 100.0);
+        ReflectionTestUtils.setField(order, "id", 5L);
+        when(orderRepository.findByIdGreaterThanOrderByIdAsc(eq(0L), any(Pageable.class))).thenReturn(List.of(order));
+
+        // Act & Assert: A page of size 1 is full, so the X-Next-Cursor header must be present
+        mockMvc.perform(MockMvcRequestBuilders.get("/orders").param("limit", "1"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().exists(OrderController.NEXT_CURSOR_HEADER));
+    }
+
+    @Test
+    public void getAllOrders_InvalidCursor_ReturnsBadRequest() throws Exception {
+        // Act & Assert: A cursor that does not decode to an ID is rejected with a Bad Request status (400)
+        mockMvc.perform(MockMvcRequestBuilders.get("/orders").param("cursor", "not-a-cursor"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void searchOrders_WithFilters_ReturnsPageOfOrders() throws Exception {
+        // Arrange: Configure the mock repository to return one matching order
+        Order order = new Order("Marcos Prieto", LocalDate.now(), "123 Main St", 100.0);
+        when(orderRepository.findAll(any(Specification.class), any(Pageable.class))).thenReturn(new PageImpl<>(List.of(order)));
+
+        // Act & Assert: Search by customer and date range and expect an OK status (200) with the page content
+        mockMvc.perform(MockMvcRequestBuilders.get("/orders/search")
+                        .param("customerName", "Marcos Prieto")
+                        .param("fromDate", "2023-01-01")
+                        .param("toDate", "2023-12-31")
+                        .param("size", "10"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content.length()").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.content[0].customerName").value("Marcos Prieto"));
+    }
+
     @Test
     public void getOrderById_ExistingOrderId_ReturnsOrder() throws Exception {
         // Arrange: Create an order and configure the mock repository to return the order by its ID
@@ -86,6 +192,125 @@ public class OrderControllerTests {
                 .andExpect(MockMvcResultMatchers.jsonPath("$.total").value(100.0));
     }
 
+    @Test
+    public void getOrderById_RepeatedRequest_IsServedFromCache() throws Exception {
+        // Arrange: Configure the mock repository to return the order by its ID
+        Order order = new Order("Marcos Prieto", LocalDate.now(), "123 Main St", 100.0);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+
+        // Act: Request the same order twice
+        mockMvc.perform(MockMvcRequestBuilders.get("/orders/1"))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+        mockMvc.perform(MockMvcRequestBuilders.get("/orders/1"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.customerName").value("Marcos Prieto"));
+
+        // Assert: Only the first request reached the repository
+        verify(orderRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    public void getOrderById_MatchingIfNoneMatch_ReturnsNotModified() throws Exception {
+        // Arrange: An order at version 3
+        Order order = new Order("Marcos Prieto", LocalDate.now(), "123 Main St", 100.0);
+        order.setVersion(3L);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+
+        // Act & Assert: The version is exposed as ETag, and sending it back skips the body
+        mockMvc.perform(MockMvcRequestBuilders.get("/orders/1"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"3\""));
+        mockMvc.perform(MockMvcRequestBuilders.get("/orders/1").header("If-None-Match", "\"3\""))
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.content().string(""));
+    }
+
+    @Test
+    public void getOrdersByIds_ReturnsFoundOrdersInRequestOrderAndMissingIds() throws Exception {
+        // Arrange: Orders 1 and 3 exist, order 2 does not
+        Order first = new Order("Marcos Prieto", LocalDate.now(), "123 Main St", 100.0);
+        ReflectionTestUtils.setField(first, "id", 1L);
+        Order third = new Order("Marta Slim", LocalDate.now(), "456 Elm St", 200.0);
+        ReflectionTestUtils.setField(third, "id", 3L);
+        when(orderRepository.findAllById(anyIterable())).thenReturn(List.of(first, third));
+
+        // Act & Assert: One repository call; results follow the requested order and the miss is reported
+        mockMvc.perform(MockMvcRequestBuilders.get("/orders").param("ids", "3,2,1"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.orders[0].id").value(3))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.orders[1].id").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.missing[0]").value(2));
+        verify(orderRepository, times(1)).findAllById(anyIterable());
+        verify(orderRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    public void multiGetOrders_TooManyIds_ReturnsBadRequest() throws Exception {
+        // Arrange: One ID more than a batch may hold
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 1001; id++) {
+            ids.add(id);
+        }
+
+        // Act & Assert
+        mockMvc.perform(MockMvcRequestBuilders.post("/orders/_mget")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(ids)))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+        verify(orderRepository, never()).findAllById(anyIterable());
+    }
+
+    @Test
+    public void updateOrder_StaleIfMatch_ReturnsPreconditionFailed() throws Exception {
+        // Arrange: The stored order is at version 4
+        Order order = new Order("Marcos Prieto", LocalDate.now(), "123 Main St", 100.0);
+        order.setVersion(4L);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+
+        // Act & Assert: An update based on version 3 is refused and nothing is saved
+        mockMvc.perform(MockMvcRequestBuilders.put("/orders/1")
+                        .header("If-Match", "\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"customerName\": \"Updated Name\", \"shippingAddress\": \"456 Elm St\", \"total\": 200.0 }"))
+                .andExpect(MockMvcResultMatchers.status().isPreconditionFailed())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.message").value("Precondition Failed"));
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    public void deleteOrder_CachedOrder_IsEvicted() throws Exception {
+        // Arrange: Load the order into the cache, then delete it
+        Order order = new Order("Marcos Prieto", LocalDate.now(), "123 Main St", 100.0);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        mockMvc.perform(MockMvcRequestBuilders.get("/orders/1"))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+        mockMvc.perform(MockMvcRequestBuilders.delete("/orders/1"))
+                .andExpect(MockMvcResultMatchers.status().isOk());
+
+        // Act & Assert: Once the row is gone, the next read goes back to the repository and finds nothing
+        when(orderRepository.findById(1L)).thenReturn(Optional.empty());
+        mockMvc.perform(MockMvcRequestBuilders.get("/orders/1"))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
+    @Test
+    public void getOrderById_AcceptCbor_ReturnsCborOrder() throws Exception {
+        // Arrange: Configure the mock repository to return the order by its ID
+        Order order = new Order("Marcos Prieto", LocalDate.now(), "123 Main St", 100.0);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+
+        // Act: Request the order in the binary format
+        byte[] body = mockMvc.perform(MockMvcRequestBuilders.get("/orders/1").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // Assert: The body decodes back to the same order
+        Order decoded = CborConfig.cborMapper(objectMapper).readValue(body, Order.class);
+        assertEquals("Marcos Prieto", decoded.getCustomerName());
+        assertEquals(100.0, decoded.getTotal());
+    }
+
     @Test
     public void getOrderById_NonexistentOrderId_ReturnsNotFoundStatus() throws Exception {
         // Arrange: Configure the mock repository to return an empty Optional for a non-existent order ID
@@ -116,12 +341,19 @@ public class OrderControllerTests {
     }
 
     @Test
-    public void createOrder_EmptyFields_ReturnsInternalServerError() throws Exception {
-        // Act & Assert: Perform a POST request to create an order with empty fields and expect an Internal Server Error status (500)
+    public void createOrder_EmptyFields_ReturnsBadRequestWithErrors() throws Exception {
+        // Act & Assert: Perform a POST request to create an order with empty fields and expect a Bad Request status (400)
+        // Additionally, assert that every failed constraint is reported with its annotation message
         mockMvc.perform(MockMvcRequestBuilders.post("/orders")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content("{ \"customerName\": \"\", \"shippingAddress\": \"\", \"total\": null }"))
-                .andExpect(MockMvcResultMatchers.status().isInternalServerError());
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.message").value("Validation Error"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.errors.length()").value(3))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.errors[0]").value("customerName: Customer name must not be blank"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.errors[2]").value("total: Total must not be null"));
+
+        verify(orderRepository, never()).save(any(Order.class));
     }
 
     @Test
@@ -136,10 +368,79 @@ public class OrderControllerTests {
                 .andExpect(MockMvcResultMatchers.status().isNotFound());
     }
 
+    @Test
+    public void patchOrder_CachedOrder_UpdatesGivenFieldWithoutLoadingOrSaving() throws Exception {
+        // Arrange: The order is cached at version 2, and the UPDATE finds it at that version
+        Order order = new Order("Marcos Prieto", LocalDate.now(), "123 Main St", 100.0);
+        ReflectionTestUtils.setField(order, "id", 1L);
+        order.setVersion(2L);
+        orderCache.put(1L, order);
+        when(orderRepository.patch(eq(1L), eq(2L), any(Order.class))).thenReturn(1);
+
+        // Act & Assert: Only the address changes; the new version is returned as the ETag
+        mockMvc.perform(MockMvcRequestBuilders.patch("/orders/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"shippingAddress\": \"456 Elm St\" }"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "\"3\""))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.shippingAddress").value("456 Elm St"))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.customerName").value("Marcos Prieto"));
+        verify(orderRepository, never()).findById(anyLong());
+        verify(orderRepository, never()).save(any(Order.class));
+    }
+
+    @Test
+    public void patchOrder_NoRowUpdated_ReturnsNotFoundStatus() throws Exception {
+        // Arrange: The cached order was deleted in the meantime
+        Order order = new Order("Marcos Prieto", LocalDate.now(), "123 Main St", 100.0);
+        ReflectionTestUtils.setField(order, "id", 1L);
+        orderCache.put(1L, order);
+        when(orderRepository.patch(eq(1L), anyLong(), any(Order.class))).thenReturn(0);
+        when(orderRepository.findById(1L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        mockMvc.perform(MockMvcRequestBuilders.patch("/orders/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"total\": 150.0 }"))
+                .andExpect(MockMvcResultMatchers.status().isNotFound());
+    }
+
+    @Test
+    public void patchOrder_NoFields_ReturnsBadRequest() throws Exception {
+        // Act & Assert: A patch must change something, and nothing is written
+        mockMvc.perform(MockMvcRequestBuilders.patch("/orders/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ }"))
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.errors[0]").value(OrderValidator.PATCH_EMPTY));
+        verify(orderRepository, never()).patch(anyLong(), anyLong(), any(Order.class));
+    }
+
+    @Test
+    public void patchOrders_PatchesFoundOrdersInOneCallAndReportsMissingIds() throws Exception {
+        // Arrange: Orders 1 and 3 exist, order 2 does not
+        Order first = new Order("Marcos Prieto", LocalDate.now(), "123 Main St", 100.0);
+        ReflectionTestUtils.setField(first, "id", 1L);
+        Order third = new Order("Marta Slim", LocalDate.now(), "456 Elm St", 200.0);
+        ReflectionTestUtils.setField(third, "id", 3L);
+        when(orderRepository.findAllById(anyIterable())).thenReturn(List.of(first, third));
+
+        // Act & Assert
+        mockMvc.perform(MockMvcRequestBuilders.patch("/orders").param("ids", "1,2,3")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"total\": 75.0 }"))
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.orders[0].total").value(75.0))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.orders[1].id").value(3))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.missing[0]").value(2));
+        verify(orderRepository, times(1)).patchAll(eq(Map.of(1L, 0L, 3L, 0L)), any(Order.class));
+    }
+
     @Test
     public void deleteOrder_ExistingOrderId_ReturnsOkStatus() throws Exception {
-        // Arrange: Configure the mock repository to return true for the existence of an order with the specified ID
-        when(orderRepository.existsById(1L)).thenReturn(true);
+        // Arrange: Configure the mock repository to return the order to delete by its ID
+        Order order = new Order("Marcos Prieto", LocalDate.now(), "123 Main St", 100.0);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
 
         // Act & Assert: Perform a DELETE request to delete an order and expect an OK status (200)
         // Additionally, assert that the response content is "Order deleted successfully"
@@ -150,8 +451,8 @@ public class OrderControllerTests {
 
     @Test
     public void deleteOrder_NonexistentOrderId_ReturnsNotFoundStatus() throws Exception {
-        // Arrange: Configure the mock repository to return false for the existence of an order with the specified ID
-        when(orderRepository.existsById(1L)).thenReturn(false);
+        // Arrange: Configure the mock repository to return an empty Optional for a non-existent order ID
+        when(orderRepository.findById(1L)).thenReturn(Optional.empty());
 
         // Act & Assert: Perform a DELETE request to delete a non-existent order and expect a Not Found status (404)
         mockMvc.perform(MockMvcRequestBuilders.delete("/orders/1"))
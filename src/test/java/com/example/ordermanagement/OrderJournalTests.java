@@ -0,0 +1,122 @@
+package com.example.ordermanagement;
+
+import com.example.ordermanagement.entity.Order;
+import com.example.ordermanagement.event.OrderChangedEvent;
+import com.example.ordermanagement.journal.OrderJournal;
+import com.example.ordermanagement.repository.OrderIdAllocator;
+import com.example.ordermanagement.repository.OrderJdbcWriter;
+import com.example.ordermanagement.shard.ShardedOrderRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+public class OrderJournalTests {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+    @TempDir
+    Path tempDir;
+
+    private ShardedOrderRepository orderRepository;
+    private OrderJdbcWriter jdbcWriter;
+    private OrderIdAllocator idAllocator;
+    private List<Order> upserted;
+
+    @BeforeEach
+    public void setup() {
+        orderRepository = mock(ShardedOrderRepository.class);
+        jdbcWriter = mock(OrderJdbcWriter.class);
+        idAllocator = mock(OrderIdAllocator.class);
+        upserted = new ArrayList<>();
+        doAnswer(invocation -> {
+            synchronized (upserted) {
+                upserted.addAll(invocation.getArgument(0));
+            }
+            return null;
+        }).when(jdbcWriter).upsertAll(any());
+    }
+
+    @Test
+    public void restart_ReplaysLatestStateOfEachOrder() {
+        // Arrange: One order created then updated, another created then deleted
+        OrderJournal journal = journal(DataSize.ofMegabytes(1));
+        journal.start();
+        Order first = order(1L, 0L, "Martin Prieto", 100.0);
+        Order firstUpdated = order(1L, 1L, "Martin Prieto", 150.0);
+        Order second = order(2L, 0L, "Pedro Almario", 50.0);
+        journal.onOrderChanged(OrderChangedEvent.created(first));
+        journal.onOrderChanged(OrderChangedEvent.created(second));
+        journal.onOrderChanged(OrderChangedEvent.updated(first, firstUpdated));
+        journal.onOrderChanged(OrderChangedEvent.deleted(second));
+        journal.stop();
+
+        // Act: Start again over the same directory
+        OrderJournal restarted = journal(DataSize.ofMegabytes(1));
+        restarted.start();
+        restarted.stop();
+
+        // Assert: Only the updated first order is restored, the second is deleted and IDs continue after both
+        assertEquals(1, upserted.size());
+        assertEquals(150.0, upserted.get(0).getTotal());
+        verify(jdbcWriter).deleteAllById(argThat((Collection<Long> ids) -> ids.size() == 1 && ids.contains(2L)));
+        verify(idAllocator).reserveBeyond(2L);
+    }
+
+    @Test
+    public void snapshot_ReplacesOlderSegments() throws Exception {
+        // Arrange: Small segments, so the orders span several of them
+        OrderJournal journal = journal(DataSize.ofBytes(512));
+        journal.start();
+        List<Order> orders = new ArrayList<>();
+        for (long id = 1; id <= 20; id++) {
+            Order order = order(id, 0L, "Martin Prieto", 10.0 * id);
+            orders.add(order);
+            journal.onOrderChanged(OrderChangedEvent.created(order));
+        }
+        doAnswer(invocation -> {
+            Consumer<Order> consumer = invocation.getArgument(0);
+            orders.forEach(consumer);
+            return null;
+        }).when(orderRepository).forEachOrder(any());
+
+        // Act: Snapshot, then one more change that only exists in the journal
+        journal.snapshot();
+        journal.onOrderChanged(OrderChangedEvent.created(order(21L, 0L, "Pedro Almario", 5.0)));
+        journal.stop();
+        OrderJournal restarted = journal(DataSize.ofBytes(512));
+        restarted.start();
+        restarted.stop();
+
+        // Assert: The snapshot and the newer segment together restore all orders
+        assertEquals(21, upserted.size());
+        verify(idAllocator).reserveBeyond(21L);
+    }
+
+    private OrderJournal journal(DataSize segmentSize) {
+        return new OrderJournal(orderRepository, jdbcWriter, idAllocator, objectMapper, tempDir,
+                segmentSize, Duration.ofHours(1), 4, 7);
+    }
+
+    private static Order order(Long id, Long version, String customerName, Double total) {
+        Order order = new Order(customerName, LocalDate.now(), "Calle Arcos 1313", total);
+        order.setId(id);
+        order.setVersion(version);
+        return order;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.ordermanagement;
+
+import com.example.ordermanagement.entity.Order;
+import com.example.ordermanagement.repository.OrderRepository;
+import com.example.ordermanagement.repository.OrderSpecifications;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+public class OrderRepositoryJpaTests {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Test
+    public void testFindNextPageById() {
+        // Create and persist three orders
+        Order first = new Order("Martin Prieto", LocalDate.now(), "2806 Logan St", 100.0);
+        Order second = new Order("Pedro Almario", LocalDate.now(), "12 Oak Ave", 150.0);
+        Order third = new Order("Lucia Gomez", LocalDate.now(), "7 Pine Rd", 75.0);
+        entityManager.persist(first);
+        entityManager.persist(second);
+        entityManager.persist(third);
+
+        // Fetch the page of two orders that follows the first one
+        List<Order> page = orderRepository.findByIdGreaterThanOrderByIdAsc(first.getId(), PageRequest.ofSize(2));
+
+        // Assert that the page continues right after the first order, in ID order
+        assertEquals(List.of(second.getId(), third.getId()), page.stream().map(Order::getId).toList());
+    }
+
+    @Test
+    public void testSearchOrders() {
+        // Create and persist orders for two customers
+        entityManager.persist(new Order("Martin Prieto", LocalDate.now(), "2806 Logan St", 100.0));
+        entityManager.persist(new Order("Martin Prieto", LocalDate.now(), "2806 Logan St", 20.0));
+        entityManager.persist(new Order("Pedro Almario", LocalDate.now(), "12 Oak Ave", 150.0));
+
+        // Search one customer's orders of at least 50 placed today
+        Page<Order> page = orderRepository.findAll(
+                OrderSpecifications.matching("Martin Prieto", LocalDate.now(), LocalDate.now(), 50.0, null),
+                PageRequest.of(0, 10));
+
+        // Assert that only the matching order is returned
+        assertEquals(1, page.getTotalElements());
+        assertEquals(100.0, page.getContent().get(0).getTotal());
+    }
+
+    @Test
+    public void testPatchOrder() {
+        // Create and persist an order (version 0)
+        Order order = entityManager.persistFlushFind(new Order("Martin Prieto", LocalDate.now(), "2806 Logan St", 100.0));
+
+        // Change only the shipping address, at the current version
+        Order patch = new Order();
+        patch.setShippingAddress("1 Harbour Rd");
+        int updated = orderRepository.patch(order.getId(), 0L, patch);
+        entityManager.clear();
+
+        // Assert that the address changed, the other fields did not, and the version was incremented
+        Order patched = orderRepository.findById(order.getId()).orElseThrow();
+        assertEquals(1, updated);
+        assertEquals("1 Harbour Rd", patched.getShippingAddress());
+        assertEquals("Martin Prieto", patched.getCustomerName());
+        assertEquals(100.0, patched.getTotal());
+        assertEquals(1L, patched.getVersion());
+
+        // Assert that a patch based on the old version updates nothing
+        assertEquals(0, orderRepository.patch(order.getId(), 0L, patch));
+    }
+
+    @Test
+    public void testPatchAllOrdersIsAllOrNothing() {
+        // Create and persist two orders (version 0)
+        Order first = entityManager.persistFlushFind(new Order("Martin Prieto", LocalDate.now(), "2806 Logan St", 100.0));
+        Order second = entityManager.persistFlushFind(new Order("Pedro Almario", LocalDate.now(), "15 Main St", 50.0));
+        Order patch = new Order();
+        patch.setTotal(75.0);
+
+        // Patch both at their current version in one statement
+        orderRepository.patchAll(Map.of(first.getId(), 0L, second.getId(), 0L), patch);
+        entityManager.clear();
+        assertEquals(75.0, orderRepository.findById(first.getId()).orElseThrow().getTotal());
+        assertEquals(75.0, orderRepository.findById(second.getId()).orElseThrow().getTotal());
+
+        // Assert that a batch with one stale version is refused
+        assertThrows(ObjectOptimisticLockingFailureException.class,
+                () -> orderRepository.patchAll(Map.of(first.getId(), 1L, second.getId(), 0L), patch));
+    }
+}
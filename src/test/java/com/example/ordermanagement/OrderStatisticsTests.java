@@ -0,0 +1,127 @@
+package com.example.ordermanagement;
+
+import com.example.ordermanagement.dto.OrderStatsResponse;
+import com.example.ordermanagement.entity.Order;
+import com.example.ordermanagement.event.OrderChangedEvent;
+import com.example.ordermanagement.repository.OrderAggregateRow;
+import com.example.ordermanagement.repository.OrderRepository;
+import com.example.ordermanagement.shard.ShardRouter;
+import com.example.ordermanagement.stats.OrderStatistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class OrderStatisticsTests {
+
+    private OrderRepository orderRepository;
+    private OrderStatistics orderStatistics;
+
+    @BeforeEach
+    public void setup() {
+        orderRepository = mock(OrderRepository.class);
+        orderStatistics = new OrderStatistics(orderRepository, new ShardRouter(Optional.empty(), 0),
+                mock(PlatformTransactionManager.class), 4);
+    }
+
+    @Test
+    public void createdOrders_AreAddedToDailyAndCustomerTotals() {
+        // Arrange & Act: Two orders for one customer and one for another
+        orderStatistics.onOrderChanged(OrderChangedEvent.created(order(1L, "Martin Prieto", 100.0)));
+        orderStatistics.onOrderChanged(OrderChangedEvent.created(order(2L, "Martin Prieto", 50.0)));
+        orderStatistics.onOrderChanged(OrderChangedEvent.created(order(3L, "Pedro Almario", 25.0)));
+
+        // Assert: Overall, daily and per-customer totals include all three orders
+        OrderStatsResponse stats = orderStatistics.getStats(null, null, 10);
+        assertEquals(3, stats.getOrderCount());
+        assertEquals(175.0, stats.getRevenue());
+        assertEquals(1, stats.getDaily().size());
+        assertEquals(175.0, stats.getDaily().get(0).getRevenue());
+        assertEquals("Martin Prieto", stats.getCustomers().get(0).getCustomerName());
+        assertEquals(150.0, stats.getCustomers().get(0).getRevenue());
+    }
+
+    @Test
+    public void updatedAndDeletedOrders_ApplyDeltas() {
+        // Arrange: One order, later moved to another customer with a new total, and a second order that is deleted
+        Order original = order(1L, "Martin Prieto", 100.0);
+        Order updated = order(1L, "Pedro Almario", 80.0);
+        Order deleted = order(2L, "Martin Prieto", 30.0);
+        orderStatistics.onOrderChanged(OrderChangedEvent.created(original));
+        orderStatistics.onOrderChanged(OrderChangedEvent.created(deleted));
+
+        // Act
+        orderStatistics.onOrderChanged(OrderChangedEvent.updated(original, updated));
+        orderStatistics.onOrderChanged(OrderChangedEvent.deleted(deleted));
+
+        // Assert: Only the updated order remains, under its new customer
+        OrderStatsResponse stats = orderStatistics.getStats(null, null, 10);
+        assertEquals(1, stats.getOrderCount());
+        assertEquals(80.0, stats.getRevenue());
+        assertEquals(1, stats.getCustomers().size());
+        assertEquals("Pedro Almario", stats.getCustomers().get(0).getCustomerName());
+    }
+
+    @Test
+    public void dailyBreakdown_IsLimitedToDateRange() {
+        // Arrange: An order placed today
+        orderStatistics.onOrderChanged(OrderChangedEvent.created(order(1L, "Martin Prieto", 100.0)));
+
+        // Act & Assert: A range that ends yesterday contains no days, but overall totals are unaffected
+        OrderStatsResponse stats = orderStatistics.getStats(null, LocalDate.now().minusDays(1), 10);
+        assertTrue(stats.getDaily().isEmpty());
+        assertEquals(1, stats.getOrderCount());
+    }
+
+    @Test
+    public void rebuild_CountsChangesMadeDuringTheScanOnce() {
+        // Arrange: Orders 1 and 2 are in the table. While the scan runs, the event for an update of order 1 that the
+        // scan already saw arrives late, and order 3 is created after the scan passed its range
+        Order original = order(1L, "Martin Prieto", 100.0);
+        Order updated = order(1L, "Martin Prieto", 80.0);
+        updated.setVersion(1L);
+        Order created = order(3L, "Pedro Almario", 25.0);
+        OrderAggregateRow scannedFirst = row("Martin Prieto", 1, 80.0);
+        OrderAggregateRow scannedSecond = row("Martin Prieto", 1, 50.0);
+        when(orderRepository.findMinId()).thenReturn(1L);
+        when(orderRepository.findMaxId()).thenReturn(2L);
+        when(orderRepository.aggregateByDateAndCustomer(1L, 1L)).thenAnswer(invocation -> {
+            orderStatistics.onOrderChanged(OrderChangedEvent.updated(original, updated));
+            orderStatistics.onOrderChanged(OrderChangedEvent.created(created));
+            return List.of(scannedFirst);
+        });
+        when(orderRepository.aggregateByDateAndCustomer(2L, 2L)).thenReturn(List.of(scannedSecond));
+        when(orderRepository.findAllById(List.of(1L))).thenReturn(List.of(updated));
+
+        // Act
+        orderStatistics.rebuild();
+
+        // Assert: The update is not applied on top of the state the scan counted, the create is added
+        OrderStatsResponse stats = orderStatistics.getStats(null, null, 10);
+        assertEquals(3, stats.getOrderCount());
+        assertEquals(155.0, stats.getRevenue());
+        verify(orderRepository, never()).findAllById(List.of(3L));
+    }
+
+    private static OrderAggregateRow row(String customerName, long orderCount, double revenue) {
+        OrderAggregateRow row = mock(OrderAggregateRow.class);
+        when(row.getOrderDate()).thenReturn(LocalDate.now());
+        when(row.getCustomerName()).thenReturn(customerName);
+        when(row.getOrderCount()).thenReturn(orderCount);
+        when(row.getRevenue()).thenReturn(revenue);
+        return row;
+    }
+
+    private static Order order(Long id, String customerName, Double total) {
+        Order order = new Order(customerName, LocalDate.now(), "2806 Logan St", total);
+        ReflectionTestUtils.setField(order, "id", id);
+        return order;
+    }
+}
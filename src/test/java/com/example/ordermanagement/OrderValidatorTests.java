@@ -0,0 +1,66 @@
+package com.example.ordermanagement;
+
+import com.example.ordermanagement.entity.Order;
+import com.example.ordermanagement.validation.OrderValidator;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OrderValidatorTests {
+
+    private static ValidatorFactory validatorFactory;
+    private static Validator beanValidator;
+
+    @BeforeAll
+    public static void setupValidator() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        beanValidator = validatorFactory.getValidator();
+    }
+
+    @AfterAll
+    public static void closeValidator() {
+        validatorFactory.close();
+    }
+
+    @Test
+    public void validOrder_HasNoErrors() {
+        Order order = new Order("Martin Prieto", LocalDate.now(), "2806 Logan St", 100.0);
+
+        assertTrue(OrderValidator.validate(order).isEmpty());
+    }
+
+    @Test
+    public void invalidOrders_ReportSameMessagesAsBeanValidation() {
+        // Arrange: Orders breaking each constraint, alone and together
+        List<Order> orders = List.of(
+                new Order("", LocalDate.now(), "2806 Logan St", 100.0),
+                new Order("Martin Prieto", LocalDate.now(), "   ", 100.0),
+                new Order("Martin Prieto", LocalDate.now(), "2806 Logan St", null),
+                new Order("Martin Prieto", LocalDate.now(), "2806 Logan St", 0.0),
+                new Order("Martin Prieto", LocalDate.now(), "2806 Logan St", -5.0),
+                new Order(null, LocalDate.now(), null, null));
+
+        for (Order order : orders) {
+            // Act: Validate with Hibernate Validator and with the precompiled validator
+            Set<String> expected = beanValidator.validate(order).stream()
+                    .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                    .collect(Collectors.toSet());
+            Set<String> actual = new HashSet<>(OrderValidator.validate(order));
+
+            // Assert: Both report the same messages
+            assertFalse(expected.isEmpty());
+            assertEquals(expected, actual);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.ordermanagement;
+
+import com.example.ordermanagement.entity.Order;
+import com.example.ordermanagement.event.OrderChangedEvent;
+import com.example.ordermanagement.exception.ServiceUnavailableException;
+import com.example.ordermanagement.repository.OrderIdAllocator;
+import com.example.ordermanagement.repository.OrderJdbcWriter;
+import com.example.ordermanagement.writebehind.OrderWriteBehindBuffer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+public class OrderWriteBehindBufferTests {
+
+    private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+    @TempDir
+    Path tempDir;
+
+    private OrderIdAllocator idAllocator;
+    private OrderJdbcWriter jdbcWriter;
+    private ApplicationEventPublisher eventPublisher;
+
+    @BeforeEach
+    public void setup() {
+        idAllocator = mock(OrderIdAllocator.class);
+        when(idAllocator.nextId(any(Order.class))).thenReturn(1L, 2L, 3L);
+        jdbcWriter = mock(OrderJdbcWriter.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+    }
+
+    @Test
+    public void acceptedOrder_IsPendingUntilFlushed() {
+        // Arrange: A buffer whose flusher is not running yet
+        OrderWriteBehindBuffer buffer = buffer(10);
+
+        // Act
+        Order accepted = buffer.acceptCreate(order("Martin Prieto"));
+
+        // Assert: The ID is assigned and the order can be read back before it reaches the database
+        assertEquals(1L, accepted.getId());
+        assertSame(accepted, buffer.findPending(1L).orElseThrow());
+        verifyNoInteractions(jdbcWriter, eventPublisher);
+
+        // Act: Stopping drains the queue
+        buffer.start();
+        buffer.stop();
+
+        // Assert: The order was written and only then announced
+        verify(jdbcWriter).upsertAll(argThat((Collection<Order> orders) -> orders.contains(accepted)));
+        verify(eventPublisher).publishEvent(any(OrderChangedEvent.class));
+        assertTrue(buffer.findPending(1L).isEmpty());
+    }
+
+    @Test
+    public void fullBuffer_RejectsWithServiceUnavailable() {
+        // Arrange: Room for a single order, nothing flushing
+        OrderWriteBehindBuffer buffer = buffer(1);
+        buffer.acceptCreate(order("Martin Prieto"));
+
+        // Act & Assert
+        assertThrows(ServiceUnavailableException.class, () -> buffer.acceptCreate(order("Pedro Almario")));
+    }
+
+    @Test
+    public void unflushedOrders_AreReplayedOnStart() {
+        // Arrange: An order accepted by a "previous run" that never flushed
+        OrderWriteBehindBuffer crashed = buffer(10);
+        crashed.acceptCreate(order("Martin Prieto"));
+
+        // Act: A new buffer over the same log starts up
+        OrderWriteBehindBuffer restarted = buffer(10);
+        restarted.start();
+        restarted.stop();
+
+        // Assert: The order from the log was written and announced, so listeners such as the journal see it
+        verify(jdbcWriter).upsertAll(argThat((Collection<Order> orders) ->
+                orders.size() == 1 && orders.iterator().next().getId() == 1L));
+        verify(eventPublisher).publishEvent(any(OrderChangedEvent.class));
+    }
+
+    @Test
+    public void unflushedUpdate_IsReplayedAsUpdate() {
+        // Arrange: A create and an update of the same order accepted by a "previous run" that never flushed
+        OrderWriteBehindBuffer crashed = buffer(10);
+        Order created = crashed.acceptCreate(order("Martin Prieto"));
+        Order updated = new Order(created);
+        updated.setCustomerName("Pedro Almario");
+        crashed.acceptUpdate(created, updated);
+
+        // Act
+        OrderWriteBehindBuffer restarted = buffer(10);
+        restarted.start();
+        restarted.stop();
+
+        // Assert: Listeners see the create, then the update with the state before it
+        ArgumentCaptor<OrderChangedEvent> events = ArgumentCaptor.forClass(OrderChangedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertEquals(OrderChangedEvent.Type.CREATED, events.getAllValues().get(0).getType());
+        OrderChangedEvent update = events.getAllValues().get(1);
+        assertEquals(OrderChangedEvent.Type.UPDATED, update.getType());
+        assertEquals("Martin Prieto", update.getPrevious().getCustomerName());
+        assertEquals("Pedro Almario", update.getCurrent().getCustomerName());
+        assertEquals(1L, update.getCurrent().getVersion());
+    }
+
+    private OrderWriteBehindBuffer buffer(int capacity) {
+        try {
+            return new OrderWriteBehindBuffer(idAllocator, jdbcWriter, eventPublisher, objectMapper,
+                    tempDir.resolve("write-behind.log"), capacity, 100,
+                    Duration.ofMillis(10), Duration.ofMillis(10), Duration.ofMillis(10));
+        } catch (IOException ex) {
+            throw new AssertionError(ex);
+        }
+    }
+
+    private static Order order(String customerName) {
+        Order order = new Order(customerName, LocalDate.now(), "Calle Arcos 1313", 100.0);
+        order.setOrderDate(LocalDate.now());
+        return order;
+    }
+}
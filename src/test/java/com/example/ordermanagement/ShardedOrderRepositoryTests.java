@@ -0,0 +1,206 @@
+package com.example.ordermanagement;
+
+import com.example.ordermanagement.cache.OrderCache;
+import com.example.ordermanagement.controller.OrderController;
+import com.example.ordermanagement.entity.Order;
+import com.example.ordermanagement.idempotency.IdempotencyStore;
+import com.example.ordermanagement.repository.OrderRepository;
+import com.example.ordermanagement.service.OrderBulkService;
+import com.example.ordermanagement.shard.ShardContext;
+import com.example.ordermanagement.shard.ShardRouter;
+import com.example.ordermanagement.shard.ShardRoutingDataSource;
+import com.example.ordermanagement.shard.ShardedOrderRepository;
+import com.example.ordermanagement.shard.SnowflakeIdGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+public class ShardedOrderRepositoryTests {
+
+    private OrderRepository orderRepository;
+    private ShardRouter shardRouter;
+    private ShardedOrderRepository shardedOrderRepository;
+
+    @BeforeEach
+    public void setup() {
+        orderRepository = mock(OrderRepository.class);
+        ShardRoutingDataSource dataSource = new ShardRoutingDataSource(List.of(mock(DataSource.class), mock(DataSource.class)));
+        shardRouter = new ShardRouter(Optional.of(dataSource), 1);
+        shardedOrderRepository = new ShardedOrderRepository(orderRepository, shardRouter);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        shardRouter.destroy();
+    }
+
+    @Test
+    public void snowflakeIds_AreUniqueAndCarryTheirShard() {
+        // Arrange
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(3);
+        Set<Long> ids = new HashSet<>();
+
+        // Act: More IDs than fit in one millisecond
+        for (int i = 0; i < 10_000; i++) {
+            long id = generator.nextId(i % 5);
+
+            // Assert: Every ID is new and routes back to the shard it was made for
+            assertTrue(ids.add(id));
+            assertEquals(i % 5, SnowflakeIdGenerator.shardOf(id));
+        }
+    }
+
+    @Test
+    public void save_NewOrder_GetsIdOfCustomerShardAndIsSavedThere() {
+        // Arrange: Record which shard the repository is called on
+        Order order = new Order("Martin Prieto", LocalDate.now(), "Calle Arcos 1313", 100.0);
+        int expectedShard = shardRouter.shardForCustomer("Martin Prieto");
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
+            assertEquals(expectedShard, ShardContext.current());
+            return invocation.getArgument(0);
+        });
+
+        // Act
+        Order saved = shardedOrderRepository.save(order);
+
+        // Assert: The ID routes to the same shard, and the routing is cleared afterwards
+        assertNotNull(saved.getId());
+        assertEquals(expectedShard, shardRouter.shardOf(saved.getId()));
+        assertNull(ShardContext.current());
+    }
+
+    @Test
+    public void findPageAfter_MergesShardsById() {
+        // Arrange: Each shard returns its own next page
+        when(orderRepository.findByIdGreaterThanOrderByIdAsc(anyLong(), any(Pageable.class))).thenAnswer(invocation ->
+                ShardContext.current() == 0 ? List.of(order(1L, 10.0), order(4L, 40.0), order(5L, 50.0))
+                        : List.of(order(2L, 20.0), order(3L, 30.0), order(6L, 60.0)));
+
+        // Act
+        List<Order> page = shardedOrderRepository.findPageAfter(0L, 3);
+
+        // Assert: The smallest IDs over all shards, in order
+        assertEquals(List.of(1L, 2L, 3L), page.stream().map(Order::getId).toList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void findAll_MergesSortedShardPagesAndSumsTotals() {
+        // Arrange: Each shard returns its first matches by total, descending
+        when(orderRepository.findAll(any(Specification.class), any(Pageable.class))).thenAnswer(invocation -> {
+            Pageable head = invocation.getArgument(1);
+            assertEquals(0, head.getOffset());
+            assertEquals(4, head.getPageSize());
+            List<Order> content = ShardContext.current() == 0
+                    ? List.of(order(1L, 90.0), order(3L, 50.0), order(5L, 30.0), order(7L, 10.0))
+                    : List.of(order(2L, 80.0), order(4L, 70.0), order(6L, 20.0), order(8L, 5.0));
+            return new PageImpl<>(content, head, 10);
+        });
+
+        // Act: Second page of two, by total descending
+        Page<Order> page = shardedOrderRepository.findAll(Specification.where(null),
+                PageRequest.of(1, 2, Sort.by(Sort.Direction.DESC, "total")));
+
+        // Assert: Third and fourth highest totals overall, and the total count of both shards
+        assertEquals(List.of(4L, 3L), page.getContent().stream().map(Order::getId).toList());
+        assertEquals(20, page.getTotalElements());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void findAllById_QueriesEachShardForItsOwnIdsInChunks() {
+        // Arrange: 600 IDs on shard 0 and 10 on shard 1; every query checks its IDs belong to the current shard
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(0);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 610; i++) {
+            ids.add(generator.nextId(i < 600 ? 0 : 1));
+        }
+        AtomicInteger queries = new AtomicInteger();
+        when(orderRepository.findAllById(any(Iterable.class))).thenAnswer(invocation -> {
+            List<Long> chunk = invocation.getArgument(0);
+            assertTrue(chunk.size() <= 500);
+            chunk.forEach(id -> assertEquals(ShardContext.current(), shardRouter.shardOf(id)));
+            queries.incrementAndGet();
+            return chunk.stream().map(id -> order(id, 10.0)).toList();
+        });
+
+        // Act
+        List<Order> found = shardedOrderRepository.findAllById(ids);
+
+        // Assert: Two chunks on shard 0, one on shard 1, and every order comes back
+        assertEquals(3, queries.get());
+        assertEquals(610, found.size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void patchOrders_ConflictOnOneShard_ReturnsMultiStatusWithPatchedAndConflictingIds() throws Exception {
+        // Arrange: One order per shard; the order on shard 0 was modified concurrently, so its UPDATE fails
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(0);
+        long conflictingId = generator.nextId(0);
+        long patchedId = generator.nextId(1);
+        when(orderRepository.findAllById(any(Iterable.class))).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(id -> order(id, 10.0)).toList();
+        });
+        doAnswer(invocation -> {
+            if (ShardContext.current() == 0) {
+                throw new ObjectOptimisticLockingFailureException(Order.class, conflictingId);
+            }
+            return null;
+        }).when(orderRepository).patchAll(anyMap(), any(Order.class));
+        OrderCache orderCache = new OrderCache(shardedOrderRepository, 100, Duration.ofMinutes(10));
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        OrderController controller = new OrderController(shardedOrderRepository, orderCache, mock(OrderBulkService.class),
+                mock(IdempotencyStore.class), mock(ApplicationEventPublisher.class), objectMapper,
+                Optional.empty(), Optional.empty());
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+
+        // Act & Assert: Shard 1 stays committed, so the response reports it next to the conflict instead of a 412
+        mockMvc.perform(MockMvcRequestBuilders.patch("/orders").param("ids", conflictingId + "," + patchedId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{ \"total\": 75.0 }"))
+                .andExpect(MockMvcResultMatchers.status().isMultiStatus())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.orders.length()").value(1))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.orders[0].id").value(patchedId))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.orders[0].total").value(75.0))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.conflicting[0]").value(conflictingId));
+        verify(orderRepository, times(2)).patchAll(anyMap(), any(Order.class));
+    }
+
+    private static Order order(Long id, Double total) {
+        Order order = new Order("Martin Prieto", LocalDate.now(), "Calle Arcos 1313", total);
+        order.setId(id);
+        return order;
+    }
+}